@@ -1,8 +1,11 @@
 package ua.procamp.dao;
 
 import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * {@link AccountDao} provides an API to access {@link Account} data.
@@ -15,6 +18,20 @@ public interface AccountDao {
      */
     void save(Account account);
 
+    /**
+     * Stores new accounts within a single transaction, flushing and clearing the persistence context after every
+     * batch. Sets generated ids to each {@link Account} instance. If any account cannot be stored, none of them
+     * is stored.
+     * When called within a running transaction, it joins the transaction and clears its persistence context too.
+     * <p>
+     * Inserts are sent in JDBC batches only when ids are not generated by the database on insert
+     * (see {@code BulkAccountEntityH2} persistence unit), since Hibernate has to execute each insert immediately
+     * to obtain an identity.
+     *
+     * @param accounts new accounts
+     */
+    void saveAll(List<Account> accounts);
+
     /**
      * Returns an {@link Account} instance by its id
      *
@@ -23,6 +40,16 @@ public interface AccountDao {
      */
     Account findById(Long id);
 
+    /**
+     * Returns accounts by their ids in the order of the ids. Accounts found in the second-level cache are not
+     * queried, the rest are loaded in chunks of the batch size, one query per chunk. If any account does not exist,
+     * {@link ua.procamp.exception.AccountDaoException} listing all missing ids is thrown.
+     *
+     * @param ids account ids in the database, may contain duplicates
+     * @return one account per requested id
+     */
+    List<Account> findAllById(Collection<Long> ids);
+
     /**
      * Returns {@link Account} instance by its email
      *
@@ -38,6 +65,32 @@ public interface AccountDao {
      */
     List<Account> findAll();
 
+    /**
+     * Returns a lazy stream of all accounts that reads the table using a forward-only database cursor. Returned
+     * accounts are detached and not kept by the persistence context, so memory usage does not depend on the table
+     * size. The stream holds a database connection, so it must be closed (e.g. using try-with-resources).
+     *
+     * @param fetchSize number of rows fetched from the database per round trip
+     * @return stream of all accounts
+     */
+    Stream<Account> streamAll(int fetchSize);
+
+    /**
+     * Returns id, email and balance of all accounts without loading {@link Account} entities
+     *
+     * @return account balance list
+     */
+    List<AccountBalance> findAllBalances();
+
+    /**
+     * Returns a lazy stream of id, email and balance of all accounts. Works the same way as {@link #streamAll(int)},
+     * but does not create {@link Account} entities. The stream must be closed.
+     *
+     * @param fetchSize number of rows fetched from the database per round trip
+     * @return stream of account balances
+     */
+    Stream<AccountBalance> streamAllBalances(int fetchSize);
+
     /**
      * Receives stored {@link Account} instance and updates it in the database
      *
@@ -1,19 +1,75 @@
 package ua.procamp.dao;
 
 import ua.procamp.exception.AccountDaoException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
 import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AccountDaoImpl implements AccountDao {
+    /**
+     * Query cache region of email lookups. Unlike a natural-id cache, it is not populated each time an account is
+     * loaded, so full table reads do not churn the cache.
+     */
+    private static final String FIND_BY_EMAIL_CACHE_REGION = "ua.procamp.model.Account#byEmail";
+    private static final String FIND_ALL_BALANCES_QUERY =
+            "SELECT new ua.procamp.model.AccountBalance(a.id, a.email, a.balance) FROM Account a";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
     private EntityManagerFactory emf;
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
 
     public AccountDaoImpl(EntityManagerFactory emf) {
+        this(emf, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param emf       entity manager factory
+     * @param batchSize number of accounts persisted by {@link #saveAll(List)} before the persistence context is
+     *                  flushed and cleared, it is also used as a JDBC batch size and as a max number of ids per query
+     *                  of {@link #findAllById(Collection)}
+     */
+    public AccountDaoImpl(EntityManagerFactory emf, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
         this.emf = emf;
+        this.transactionTemplate = new TransactionTemplate(emf);
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -21,23 +77,98 @@ public class AccountDaoImpl implements AccountDao {
         executeWithinTransaction(entityManager -> entityManager.persist(account));
     }
 
+    @Override
+    public void saveAll(List<Account> accounts) {
+        try {
+            executeWithinTransaction(entityManager -> {
+                Session session = entityManager.unwrap(Session.class);
+                Integer jdbcBatchSize = session.getJdbcBatchSize();
+                CacheMode cacheMode = session.getCacheMode();
+                session.setJdbcBatchSize(batchSize);
+                session.setCacheMode(CacheMode.IGNORE);
+                try {
+                    for (int i = 0; i < accounts.size(); i++) {
+                        entityManager.persist(accounts.get(i));
+                        if ((i + 1) % batchSize == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
+                    }
+                    entityManager.flush();
+                } finally {
+                    session.setJdbcBatchSize(jdbcBatchSize);
+                    session.setCacheMode(cacheMode);
+                }
+            });
+        } catch (AccountDaoException e) {
+            accounts.forEach(account -> account.setId(null));
+            throw e;
+        }
+    }
+
     @Override
     public Account findById(Long id) {
-        return executeWithinTransactionReturningResult(entityManager -> entityManager.find(Account.class, id));
+        return executeReadOnlyWithinTransaction(entityManager -> entityManager.find(Account.class, id));
+    }
+
+    @Override
+    public List<Account> findAllById(Collection<Long> ids) {
+        List<Account> accounts = executeReadOnlyWithinTransaction(entityManager -> loadAllById(entityManager, ids));
+        Set<Long> missingIds = new LinkedHashSet<>();
+        Iterator<Long> idIterator = ids.iterator();
+        for (Account account : accounts) {
+            Long id = idIterator.next();
+            if (account == null) {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            throw new AccountDaoException(String.format("Accounts with ids = %s do not exist", missingIds));
+        }
+        return accounts;
+    }
+
+    /**
+     * Hibernate multi-load does not look into the second-level cache, so only the ids that are not cached are
+     * multi-loaded, while cached accounts are resolved one by one without a query
+     */
+    private List<Account> loadAllById(EntityManager entityManager, Collection<Long> ids) {
+        Cache cache = emf.getCache();
+        Set<Long> uncachedIds = ids.stream()
+                .filter(id -> !cache.contains(Account.class, id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Account> loadedAccounts = new HashMap<>(uncachedIds.size() * 4 / 3 + 1);
+        if (!uncachedIds.isEmpty()) {
+            entityManager.unwrap(Session.class)
+                    .byMultipleIds(Account.class)
+                    .withBatchSize(batchSize)
+                    .multiLoad(new ArrayList<>(uncachedIds))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .forEach(account -> loadedAccounts.put(account.getId(), account));
+        }
+        List<Account> accounts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            accounts.add(uncachedIds.contains(id) ? loadedAccounts.get(id) : entityManager.find(Account.class, id));
+        }
+        return accounts;
     }
 
     @Override
     public Account findByEmail(String email) {
-        return executeWithinTransactionReturningResult(entityManager ->
+        return executeReadOnlyWithinTransaction(entityManager ->
                 entityManager.createQuery("SELECT a FROM Account a WHERE a.email=:email", Account.class)
                         .setParameter("email", email)
+                        .setHint(QueryHints.CACHEABLE, true)
+                        .setHint(QueryHints.CACHE_REGION, FIND_BY_EMAIL_CACHE_REGION)
                         .getSingleResult());
     }
 
     @Override
     public List<Account> findAll() {
-        return executeWithinTransactionReturningResult(entityManager ->
+        return executeReadOnlyWithinTransaction(entityManager ->
                 entityManager.createQuery("from Account", Account.class)
+                        .setHint(QueryHints.CACHE_MODE, CacheMode.GET)
                         .getResultList());
     }
 
@@ -54,33 +185,141 @@ public class AccountDaoImpl implements AccountDao {
         });
     }
 
+    @Override
+    public Stream<Account> streamAll(int fetchSize) {
+        return executeReadOnlyStream(session -> session.createQuery("from Account", Account.class), fetchSize);
+    }
+
+    @Override
+    public List<AccountBalance> findAllBalances() {
+        return executeReadOnlyWithinTransaction(entityManager ->
+                entityManager.createQuery(FIND_ALL_BALANCES_QUERY, AccountBalance.class)
+                        .getResultList());
+    }
+
+    @Override
+    public Stream<AccountBalance> streamAllBalances(int fetchSize) {
+        return executeReadOnlyStream(session -> session.createQuery(FIND_ALL_BALANCES_QUERY, AccountBalance.class),
+                fetchSize);
+    }
+
     private void executeWithinTransaction(Consumer<EntityManager> emConsumer) {
-        EntityManager entityManager = emf.createEntityManager();
-        entityManager.getTransaction().begin();
         try {
-            emConsumer.accept(entityManager);
-            entityManager.getTransaction().commit();
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
+            transactionTemplate.executeWithoutResult(emConsumer);
+        } catch (RuntimeException e) {
             throw new AccountDaoException("Exception occurred while executing transaction", e);
-        } finally {
-            entityManager.close();
         }
     }
 
-    private <T> T executeWithinTransactionReturningResult(Function<EntityManager, T> emFunction) {
-        EntityManager entityManager = emf.createEntityManager();
-        entityManager.getTransaction().begin();
+    private <T> T executeReadOnlyWithinTransaction(Function<EntityManager, T> emFunction) {
         try {
-            T result = emFunction.apply(entityManager);
-            entityManager.getTransaction().commit();
-            return result;
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
+            return transactionTemplate.execute(TransactionOptions.readOnlyOptions(), emFunction);
+        } catch (RuntimeException e) {
             throw new AccountDaoException("Exception occurred while executing transaction", e);
+        }
+    }
+
+    /**
+     * Scrolls query results with a forward-only cursor in a {@link StatelessSession} that stays open until
+     * the returned stream is closed. A stateless session has no persistence context and bypasses the second-level
+     * cache, so memory usage does not grow with the number of rows read.
+     */
+    private <T> Stream<T> executeReadOnlyStream(Function<StatelessSession, Query<T>> queryFunction, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size should be positive");
+        }
+        StatelessSession session = openReadOnlyStatelessSession();
+        try {
+            // PostgreSQL uses a cursor (and respects fetch size) only within a transaction
+            session.getTransaction().begin();
+            ScrollableResults results = queryFunction.apply(session)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            return StreamSupport.stream(new ScrollSpliterator<T>(results), false)
+                    .onClose(() -> closeStream(session, results));
+        } catch (Exception e) {
+            closeStream(session, null);
+            throw new AccountDaoException("Exception occurred while opening accounts stream", e);
+        }
+    }
+
+    private void closeStream(StatelessSession session, ScrollableResults results) {
+        try {
+            if (results != null) {
+                results.close();
+            }
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+        } catch (Exception e) {
+            throw new AccountDaoException("Exception occurred while closing accounts stream", e);
         } finally {
-            entityManager.close();
+            closeReadOnlyStatelessSession(session);
+        }
+    }
+
+    /**
+     * Opens a stateless session on a connection taken directly from Hibernate connection provider, so the connection
+     * stays the same for the whole session and its read-only flag can be reset before it is returned
+     */
+    private StatelessSession openReadOnlyStatelessSession() {
+        ConnectionProvider connectionProvider = getConnectionProvider();
+        Connection connection = null;
+        try {
+            connection = connectionProvider.getConnection();
+            connection.setReadOnly(true);
+            return emf.unwrap(SessionFactory.class).openStatelessSession(connection);
+        } catch (SQLException e) {
+            closeConnection(connectionProvider, connection);
+            throw new AccountDaoException("Exception occurred while opening read-only session", e);
         }
     }
-}
 
+    private void closeReadOnlyStatelessSession(StatelessSession session) {
+        Connection connection = session.connection();
+        session.close();
+        closeConnection(getConnectionProvider(), connection);
+    }
+
+    private void closeConnection(ConnectionProvider connectionProvider, Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.setReadOnly(false);
+        } catch (SQLException ignored) {
+        } finally {
+            try {
+                connectionProvider.closeConnection(connection);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private ConnectionProvider getConnectionProvider() {
+        return emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(ConnectionProvider.class);
+    }
+
+    private static class ScrollSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ScrollableResults results;
+
+        private ScrollSpliterator(ScrollableResults results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.results = results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!results.next()) {
+                    return false;
+                }
+                action.accept((T) results.get(0));
+                return true;
+            } catch (HibernateException e) {
+                throw new AccountDaoException("Exception occurred while reading accounts stream", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncAccountDao} is a non-blocking variant of {@link AccountDao}. Each method performs the same operation
+ * as its {@link AccountDao} counterpart on an executor and returns a future of its result.
+ * A {@link ua.procamp.exception.AccountDaoException} completes the future exceptionally.
+ * <p>
+ * Streaming methods have no async variants, since a stream holds a connection until it is closed.
+ */
+public interface AsyncAccountDao {
+    CompletableFuture<Void> save(Account account);
+
+    CompletableFuture<Void> saveAll(List<Account> accounts);
+
+    CompletableFuture<Account> findById(Long id);
+
+    CompletableFuture<List<Account>> findAllById(Collection<Long> ids);
+
+    CompletableFuture<Account> findByEmail(String email);
+
+    CompletableFuture<List<Account>> findAll();
+
+    CompletableFuture<List<AccountBalance>> findAllBalances();
+
+    CompletableFuture<Void> update(Account account);
+
+    CompletableFuture<Void> remove(Account account);
+}
@@ -0,0 +1,64 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
+import ua.procamp.util.async.AsyncDaoExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncAccountDaoImpl implements AsyncAccountDao {
+    private final AccountDao accountDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncAccountDaoImpl(AccountDao accountDao, AsyncDaoExecutor executor) {
+        this.accountDao = accountDao;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(Account account) {
+        return executor.runAsync(() -> accountDao.save(account));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAll(List<Account> accounts) {
+        return executor.runAsync(() -> accountDao.saveAll(accounts));
+    }
+
+    @Override
+    public CompletableFuture<Account> findById(Long id) {
+        return executor.supplyAsync(() -> accountDao.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Account>> findAllById(Collection<Long> ids) {
+        return executor.supplyAsync(() -> accountDao.findAllById(ids));
+    }
+
+    @Override
+    public CompletableFuture<Account> findByEmail(String email) {
+        return executor.supplyAsync(() -> accountDao.findByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<List<Account>> findAll() {
+        return executor.supplyAsync(accountDao::findAll);
+    }
+
+    @Override
+    public CompletableFuture<List<AccountBalance>> findAllBalances() {
+        return executor.supplyAsync(accountDao::findAllBalances);
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Account account) {
+        return executor.runAsync(() -> accountDao.update(account));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(Account account) {
+        return executor.runAsync(() -> accountDao.remove(account));
+    }
+}
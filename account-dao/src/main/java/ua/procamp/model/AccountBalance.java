@@ -0,0 +1,22 @@
+package ua.procamp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link AccountBalance} is a read-only projection of {@link Account} that holds only the columns needed for
+ * balance exports
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class AccountBalance {
+    private final Long id;
+    private final String email;
+    private final BigDecimal balance;
+}
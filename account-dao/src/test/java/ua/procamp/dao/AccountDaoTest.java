@@ -2,14 +2,22 @@ package ua.procamp.dao;
 
 import ua.procamp.exception.AccountDaoException;
 import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
 import ua.procamp.util.TestDataGenerator;
+import ua.procamp.util.async.AsyncDaoExecutor;
+import ua.procamp.util.tx.TransactionMetrics;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.RollbackException;
 import javax.persistence.Persistence;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -17,27 +25,40 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 
 class AccountDaoTest {
+    private static final Map<String, String> STATISTICS_ENABLED = Map.of("hibernate.generate_statistics", "true");
     private static EntityManagerFactory emf;
     private static AccountDao accountDao;
+    private static EntityManagerFactory bulkEmf;
+    private static AccountDao bulkAccountDao;
 
     @BeforeAll
     static void init() {
-        emf = Persistence.createEntityManagerFactory("SingleAccountEntityH2");
+        emf = Persistence.createEntityManagerFactory("SingleAccountEntityH2", STATISTICS_ENABLED);
         accountDao = new AccountDaoImpl(emf);
+        bulkEmf = Persistence.createEntityManagerFactory("BulkAccountEntityH2", STATISTICS_ENABLED);
+        bulkAccountDao = new AccountDaoImpl(bulkEmf, 5);
     }
 
     @AfterAll
     static void destroy() {
         emf.close();
+        bulkEmf.close();
     }
 
     @Test
@@ -115,6 +136,113 @@ class AccountDaoTest {
         assertThat(accounts, everyItem(isIn(foundAccounts)));
     }
 
+    @Test
+    void testStreamAllAccounts() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(5);
+        accounts.forEach(this::saveTestAccount);
+
+        List<Account> streamedAccounts;
+        try (Stream<Account> accountStream = accountDao.streamAll(2)) {
+            streamedAccounts = accountStream.collect(Collectors.toList());
+        }
+
+        assertThat(accounts, everyItem(isIn(streamedAccounts)));
+    }
+
+    @Test
+    void testStreamAllWithInvalidFetchSize() {
+        try {
+            accountDao.streamAll(0);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(e.getClass(), IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void testFindAllBalances() {
+        Account account = TestDataGenerator.generateAccount();
+        saveTestAccount(account);
+
+        List<AccountBalance> balances = accountDao.findAllBalances();
+
+        assertThat(balances, hasItem(toBalance(account)));
+    }
+
+    @Test
+    void testStreamAllBalances() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(5);
+        accounts.forEach(this::saveTestAccount);
+
+        List<AccountBalance> balances;
+        try (Stream<AccountBalance> balanceStream = accountDao.streamAllBalances(2)) {
+            balances = balanceStream.collect(Collectors.toList());
+        }
+
+        accounts.forEach(account -> assertThat(balances, hasItem(toBalance(account))));
+    }
+
+    private AccountBalance toBalance(Account account) {
+        return new AccountBalance(account.getId(), account.getEmail(), account.getBalance());
+    }
+
+    @Test
+    void testFindersDoNotFlush() {
+        Account account = TestDataGenerator.generateAccount();
+        saveTestAccount(account);
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        accountDao.findById(account.getId());
+        accountDao.findByEmail(account.getEmail());
+        accountDao.findAll();
+
+        assertThat(statistics.getFlushCount(), equalTo(0L));
+        assertThat(statistics.getTransactionCount(), equalTo(3L));
+    }
+
+    @Test
+    void testFindAllByIdLoadsChunks() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(7);
+        bulkAccountDao.saveAll(accounts);
+        List<Long> ids = accounts.stream().map(Account::getId).collect(Collectors.toList());
+        Collections.reverse(ids);
+        Statistics statistics = bulkEmf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Account> foundAccounts = bulkAccountDao.findAllById(ids);
+
+        assertThat(foundAccounts.stream().map(Account::getId).collect(Collectors.toList()), equalTo(ids));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    void testFindAllByIdSkipsCachedAccounts() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(3);
+        accountDao.saveAll(accounts);
+        accountDao.findById(accounts.get(0).getId());
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        List<Account> foundAccounts = accountDao.findAllById(
+                List.of(accounts.get(0).getId(), accounts.get(1).getId(), accounts.get(2).getId()));
+
+        assertThat(foundAccounts, equalTo(accounts));
+        assertThat(statistics.getSecondLevelCacheHitCount(), equalTo(1L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    void testFindAllByIdWithMissingIds() {
+        Account account = TestDataGenerator.generateAccount();
+        accountDao.save(account);
+
+        AccountDaoException e = assertThrows(AccountDaoException.class,
+                () -> accountDao.findAllById(List.of(-1L, account.getId(), -2L)));
+
+        assertThat(e.getMessage(), equalTo("Accounts with ids = [-1, -2] do not exist"));
+    }
+
     @Test
     void testUpdateAccount() {
         Account account = TestDataGenerator.generateAccount();
@@ -179,4 +307,214 @@ class AccountDaoTest {
         }
     }
 
+    @Test
+    void testFindByIdIsServedFromSecondLevelCache() {
+        Account account = TestDataGenerator.generateAccount();
+        saveTestAccount(account);
+        accountDao.findById(account.getId());
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Account foundAccount = accountDao.findById(account.getId());
+
+        assertEquals(account, foundAccount);
+        assertThat(statistics.getSecondLevelCacheHitCount(), equalTo(1L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+    }
+
+    @Test
+    void testFindByEmailIsServedFromQueryCache() {
+        Account account = TestDataGenerator.generateAccount();
+        saveTestAccount(account);
+        accountDao.findByEmail(account.getEmail());
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Account foundAccount = accountDao.findByEmail(account.getEmail());
+
+        assertEquals(account, foundAccount);
+        assertThat(statistics.getQueryCacheHitCount(), equalTo(1L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+    }
+
+    @Test
+    void testFindNotExistingAccountByEmail() {
+        try {
+            accountDao.findByEmail("not-existing@email.com");
+            fail("AccountDaoException should be thrown");
+        } catch (Exception e) {
+            assertEquals(e.getClass(), AccountDaoException.class);
+        }
+    }
+
+    @Test
+    void testUpdatedAccountIsRefreshedInCache() {
+        Account account = TestDataGenerator.generateAccount();
+        accountDao.save(account);
+        accountDao.findByEmail(account.getEmail());
+
+        String newEmail = "updated." + account.getEmail();
+        account.setEmail(newEmail);
+        account.setBalance(account.getBalance().add(BigDecimal.TEN));
+        accountDao.update(account);
+        Account foundAccount = accountDao.findByEmail(newEmail);
+
+        assertThat(foundAccount.getId(), equalTo(account.getId()));
+        assertThat(foundAccount.getBalance(), comparesEqualTo(account.getBalance()));
+    }
+
+    @Test
+    void testRemovedAccountIsEvictedFromCache() {
+        Account account = TestDataGenerator.generateAccount();
+        accountDao.save(account);
+        accountDao.findById(account.getId());
+
+        accountDao.remove(account);
+
+        assertThat(accountDao.findById(account.getId()), nullValue());
+    }
+
+    @Test
+    void testSaveAllAccounts() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(7);
+
+        accountDao.saveAll(accounts);
+
+        assertThat(accounts, everyItem(hasProperty("id", notNullValue())));
+        assertThat(accounts.stream().allMatch(this::isSaved), is(true));
+    }
+
+    @Test
+    void testSaveAllSendsInsertsInBatches() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(10);
+        Statistics statistics = bulkEmf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bulkAccountDao.saveAll(accounts);
+
+        assertThat(accounts, everyItem(hasProperty("id", notNullValue())));
+        assertThat(statistics.getEntityInsertCount(), equalTo(10L));
+        assertThat(statistics.getPrepareStatementCount(), lessThan(10L));
+        assertThat(bulkAccountDao.findById(accounts.get(9).getId()), equalTo(accounts.get(9)));
+    }
+
+    @Test
+    void testSaveAllInvalidAccounts() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(7);
+        accounts.get(6).setEmail(null);
+
+        try {
+            bulkAccountDao.saveAll(accounts);
+            fail("AccountDaoException should be thrown");
+        } catch (Exception e) {
+            assertEquals(e.getClass(), AccountDaoException.class);
+        }
+
+        assertThat(accounts, everyItem(hasProperty("id", nullValue())));
+        assertThat(isSavedByEmail(bulkEmf, accounts.get(0).getEmail()), is(false));
+    }
+
+    private boolean isSavedByEmail(EntityManagerFactory emf, String email) {
+        EntityManager entityManager = emf.createEntityManager();
+        boolean isSaved = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM account WHERE email = ?");
+            statement.setString(1, email);
+            return statement.executeQuery().next();
+        });
+        entityManager.close();
+        return isSaved;
+    }
+
+    @Test
+    void testDaoCallsJoinRunningTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(emf);
+        Account account = TestDataGenerator.generateAccount();
+
+        try {
+            transactionTemplate.executeWithoutResult(entityManager -> {
+                accountDao.save(account);
+                assertThat(accountDao.findById(account.getId()), sameInstance(account));
+                assertThat(entityManager.contains(account), is(true));
+                throw new IllegalStateException("Business operation failed");
+            });
+            fail("Exception should be thrown");
+        } catch (IllegalStateException e) {
+            assertThat(isSaved(account), is(false));
+        }
+
+        TransactionMetrics metrics = transactionTemplate.getMetrics();
+        assertThat(metrics.getStarted(), equalTo(1L));
+        assertThat(metrics.getRolledBack(), equalTo(1L));
+        assertThat(metrics.getDurations().getCount(), equalTo(1L));
+    }
+
+    @Test
+    void testFailedDaoCallRollsBackRunningTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(emf);
+        Account account = TestDataGenerator.generateAccount();
+        Account invalidAccount = TestDataGenerator.generateAccount();
+        invalidAccount.setEmail(null);
+
+        try {
+            transactionTemplate.executeWithoutResult(entityManager -> {
+                accountDao.save(account);
+                try {
+                    accountDao.save(invalidAccount);
+                } catch (AccountDaoException ignored) {
+                }
+            });
+            fail("Exception should be thrown");
+        } catch (RollbackException e) {
+            assertThat(isSaved(account), is(false));
+            assertThat(transactionTemplate.getMetrics().getCommitted(), equalTo(0L));
+        }
+    }
+
+    @Test
+    void testReadWriteDaoCallCannotJoinReadOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(emf);
+
+        try {
+            transactionTemplate.executeWithoutResult(TransactionOptions.readOnlyOptions(),
+                    entityManager -> accountDao.save(TestDataGenerator.generateAccount()));
+            fail("Exception should be thrown");
+        } catch (AccountDaoException e) {
+            assertThat(e.getCause().getClass(), equalTo(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    void testAsyncFindersFanOut() {
+        List<Account> accounts = TestDataGenerator.generateAccountList(20);
+        accountDao.saveAll(accounts);
+
+        try (AsyncDaoExecutor executor = AsyncDaoExecutor.create(4)) {
+            AsyncAccountDao asyncAccountDao = new AsyncAccountDaoImpl(accountDao, executor);
+            List<CompletableFuture<Account>> futures = accounts.stream()
+                    .map(account -> asyncAccountDao.findById(account.getId()))
+                    .collect(Collectors.toList());
+            List<Account> foundAccounts = futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+
+            assertThat(foundAccounts, equalTo(accounts));
+        }
+    }
+
+    @Test
+    void testFailedAsyncCallCompletesExceptionally() {
+        Account invalidAccount = TestDataGenerator.generateAccount();
+        invalidAccount.setEmail(null);
+
+        try (AsyncDaoExecutor executor = AsyncDaoExecutor.create(1)) {
+            CompletableFuture<Void> future = new AsyncAccountDaoImpl(accountDao, executor).save(invalidAccount);
+
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            assertThat(e.getCause(), instanceOf(AccountDaoException.class));
+        }
+    }
+
+    private Statistics getStatistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
 }
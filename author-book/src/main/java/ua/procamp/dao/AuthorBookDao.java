@@ -0,0 +1,30 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Author;
+import ua.procamp.model.Book;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link AuthorBookDao} manages links between {@link Author} and {@link Book} stored in the {@code author_book} join
+ * table. Links are written directly, so neither {@link Author#getBooks()} nor {@link Book#getAuthors()} is loaded.
+ * Collections that are already loaded in the current persistence context do not see the changes.
+ */
+public interface AuthorBookDao {
+    /**
+     * Links authors to books. Existing links are skipped, so the call can be repeated safely.
+     *
+     * @param bookIdsByAuthorId ids of books to link by author id
+     * @return number of created links
+     */
+    int linkAll(Map<Long, ? extends Collection<Long>> bookIdsByAuthorId);
+
+    /**
+     * Unlinks authors from books. Missing links are skipped.
+     *
+     * @param bookIdsByAuthorId ids of books to unlink by author id
+     * @return number of removed links
+     */
+    int unlinkAll(Map<Long, ? extends Collection<Long>> bookIdsByAuthorId);
+}
@@ -0,0 +1,116 @@
+package ua.procamp.dao;
+
+import org.hibernate.Session;
+import ua.procamp.exception.AuthorBookDaoException;
+import ua.procamp.util.tx.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+public class AuthorBookDaoImpl implements AuthorBookDao {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    /**
+     * PostgreSQL 9.4 has no {@code ON CONFLICT}, so an existing link is skipped by {@code NOT EXISTS}. A link inserted
+     * concurrently by another transaction still fails on the primary key of {@code author_book}.
+     */
+    private static final String LINK_SQL = "INSERT INTO author_book (author_id, book_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM author_book WHERE author_id = ? AND book_id = ?)";
+    private static final String UNLINK_SQL = "DELETE FROM author_book WHERE author_id = ? AND book_id = ?";
+
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
+
+    public AuthorBookDaoImpl(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param entityManagerFactory entity manager factory of authors and books
+     * @param batchSize            number of links sent to the database in one JDBC batch
+     */
+    public AuthorBookDaoImpl(EntityManagerFactory entityManagerFactory, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int linkAll(Map<Long, ? extends Collection<Long>> bookIdsByAuthorId) {
+        return executeBatchWithinTransaction(LINK_SQL, bookIdsByAuthorId, (statement, authorId, bookId) -> {
+            statement.setLong(1, authorId);
+            statement.setLong(2, bookId);
+            statement.setLong(3, authorId);
+            statement.setLong(4, bookId);
+        });
+    }
+
+    @Override
+    public int unlinkAll(Map<Long, ? extends Collection<Long>> bookIdsByAuthorId) {
+        return executeBatchWithinTransaction(UNLINK_SQL, bookIdsByAuthorId, (statement, authorId, bookId) -> {
+            statement.setLong(1, authorId);
+            statement.setLong(2, bookId);
+        });
+    }
+
+    /**
+     * Pending changes of a joined transaction are flushed first, so the statements see authors and books persisted
+     * in it.
+     */
+    private int executeBatchWithinTransaction(String sql, Map<Long, ? extends Collection<Long>> bookIdsByAuthorId,
+                                              LinkBinder binder) {
+        try {
+            return transactionTemplate.execute(entityManager -> {
+                entityManager.flush();
+                return entityManager.unwrap(Session.class)
+                        .doReturningWork(connection -> executeBatch(connection, sql, bookIdsByAuthorId, binder));
+            });
+        } catch (RuntimeException e) {
+            throw new AuthorBookDaoException("Exception occurred while updating author_book links", e);
+        }
+    }
+
+    /**
+     * Duplicate book ids of an author are sent once. The result is a sum of update counts, so it is {@code 0} if
+     * the JDBC driver does not report them.
+     */
+    private int executeBatch(Connection connection, String sql, Map<Long, ? extends Collection<Long>> bookIdsByAuthorId,
+                             LinkBinder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int changed = 0;
+            int batched = 0;
+            for (Map.Entry<Long, ? extends Collection<Long>> authorBooks : bookIdsByAuthorId.entrySet()) {
+                for (Long bookId : new LinkedHashSet<>(authorBooks.getValue())) {
+                    binder.bind(statement, authorBooks.getKey(), bookId);
+                    statement.addBatch();
+                    if (++batched % batchSize == 0) {
+                        changed += sumUpdateCounts(statement.executeBatch());
+                    }
+                }
+            }
+            if (batched % batchSize != 0) {
+                changed += sumUpdateCounts(statement.executeBatch());
+            }
+            return changed;
+        }
+    }
+
+    private static int sumUpdateCounts(int[] updateCounts) {
+        int sum = 0;
+        for (int updateCount : updateCounts) {
+            sum += Math.max(updateCount, 0);
+        }
+        return sum;
+    }
+
+    @FunctionalInterface
+    private interface LinkBinder {
+        void bind(PreparedStatement statement, long authorId, long bookId) throws SQLException;
+    }
+}
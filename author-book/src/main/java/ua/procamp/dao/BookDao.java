@@ -0,0 +1,29 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Book;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link BookDao} loads {@link Book} entities by their natural id {@link Book#getIsbn()}. Resolved ISBNs and books are
+ * kept in the second-level cache, so repeated lookups of the same ISBN do not query the database.
+ */
+public interface BookDao {
+    /**
+     * Retrieves a book by its ISBN
+     *
+     * @param isbn book ISBN
+     * @return book, or {@code null} if there is no book with such ISBN
+     */
+    Book findByIsbn(String isbn);
+
+    /**
+     * Retrieves books by ISBNs. Books with cached ISBNs are loaded from the cache, the rest are loaded in batches with
+     * one query per batch. Missing ISBNs are skipped.
+     *
+     * @param isbns book ISBNs
+     * @return list of found books in the order of their ISBNs
+     */
+    List<Book> findAllByIsbn(Collection<String> isbns);
+}
@@ -0,0 +1,110 @@
+package ua.procamp.dao;
+
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import ua.procamp.exception.BookDaoException;
+import ua.procamp.model.Book;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+public class BookDaoImpl implements BookDao {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
+
+    public BookDaoImpl(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param entityManagerFactory entity manager factory of authors and books
+     * @param batchSize            max number of ISBNs per query of {@link #findAllByIsbn(Collection)}
+     */
+    public BookDaoImpl(EntityManagerFactory entityManagerFactory, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Book findByIsbn(String isbn) {
+        return executeReadOnlyWithinTransaction(entityManager -> entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Book.class)
+                .load(isbn));
+    }
+
+    @Override
+    public List<Book> findAllByIsbn(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return executeReadOnlyWithinTransaction(entityManager -> loadAllByIsbn(entityManager, isbns));
+    }
+
+    /**
+     * Hibernate 5.3 has no multi natural-id load, so ISBNs are split like ids of cached entities: ISBNs found in
+     * the natural-id cache region are resolved one by one from memory, the rest are loaded with
+     * {@code isbn IN (...)} queries. Books loaded by the queries are put into the cache for subsequent calls.
+     */
+    private List<Book> loadAllByIsbn(EntityManager entityManager, Collection<String> isbns) {
+        Session session = entityManager.unwrap(Session.class);
+        Map<String, Book> booksByIsbn = new HashMap<>();
+        List<String> uncachedIsbns = new ArrayList<>();
+        for (String isbn : new LinkedHashSet<>(isbns)) {
+            if (isNaturalIdCached(session, isbn)) {
+                Book book = session.bySimpleNaturalId(Book.class).load(isbn);
+                if (book != null) {
+                    booksByIsbn.put(isbn, book);
+                }
+            } else {
+                uncachedIsbns.add(isbn);
+            }
+        }
+        for (int from = 0; from < uncachedIsbns.size(); from += batchSize) {
+            List<String> chunk = uncachedIsbns.subList(from, Math.min(from + batchSize, uncachedIsbns.size()));
+            entityManager.createQuery("SELECT b FROM Book b WHERE b.isbn IN :isbns", Book.class)
+                    .setParameter("isbns", chunk)
+                    .getResultList()
+                    .forEach(book -> booksByIsbn.put(book.getIsbn(), book));
+        }
+        return isbns.stream()
+                .map(booksByIsbn::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    private static boolean isNaturalIdCached(Session session, String isbn) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = sessionImplementor.getFactory().getMetamodel().entityPersister(Book.class);
+        NaturalIdDataAccess naturalIdCache = persister.getNaturalIdCacheAccessStrategy();
+        return naturalIdCache.contains(naturalIdCache.generateCacheKey(new Object[]{isbn}, persister,
+                sessionImplementor));
+    }
+
+    private <T> T executeReadOnlyWithinTransaction(Function<EntityManager, T> entityManagerFunction) {
+        try {
+            return transactionTemplate.execute(TransactionOptions.readOnlyOptions(), entityManagerFunction);
+        } catch (RuntimeException e) {
+            throw new BookDaoException("Exception occurred while loading books", e);
+        }
+    }
+}
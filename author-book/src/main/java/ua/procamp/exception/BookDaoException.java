@@ -0,0 +1,7 @@
+package ua.procamp.exception;
+
+public class BookDaoException extends RuntimeException {
+    public BookDaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -17,13 +17,13 @@ import javax.persistence.Table;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * todo:
  * - implement no arguments constructor
  * - implement getters and setters for all fields
- * - implement equals() based on identifier field
- * - implement hashCode() that return constant value 31
+ * - implement equals() and hashCode() based on field {@link Author#uuid}
  * - make setter for field {@link Author#books} private
  * - initialize field {@link Author#books} as new {@link HashSet}
  * - implement a helper {@link Author#addBook(Book)} that establishes a relation on both sides
@@ -32,6 +32,7 @@ import java.util.Set;
  * - configure JPA entity
  * - specify table name: "author"
  * - configure auto generated identifier
+ * - configure mandatory unique column "uuid" for field {@link Author#uuid} that is assigned on construction
  * - configure mandatory column "first_name" for field {@link Author#firstName}
  * - configure mandatory column "last_name" for field {@link Author#lastName}
  * <p>
@@ -50,6 +51,13 @@ public class Author {
     @Id
     @GeneratedValue
     private Long id;
+    /**
+     * Identity of the author that is assigned on construction and does not change on persist, unlike {@link #id}.
+     * Hash-based collections of authors rely on it.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false, unique = true, updatable = false)
+    private UUID uuid = UUID.randomUUID();
     @Column(nullable = false, name = "first_name")
     private String firstName;
     @Column(name = "last_name", nullable = false)
@@ -67,12 +75,12 @@ public class Author {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Author author = (Author) o;
-        return Objects.equals(id, author.id);
+        return Objects.equals(uuid, author.uuid);
     }
 
     @Override
     public int hashCode() {
-        return 31;
+        return uuid.hashCode();
     }
 
     public void addBook(Book book) {
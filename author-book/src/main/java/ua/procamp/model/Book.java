@@ -5,8 +5,12 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -31,6 +35,8 @@ import java.util.Set;
  * - configure mandatory unique column "isbn" for field {@link Book#isbn}
  * <p>
  * - configure many-to-many relation as mapped on the {@link Author} side
+ * <p>
+ * - cache books and their ids by {@link Book#isbn} in the second-level cache
  */
 @NoArgsConstructor
 @Getter
@@ -38,6 +44,9 @@ import java.util.Set;
 @EqualsAndHashCode(of = "isbn")
 @Entity
 @Table(name = "book")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Book {
     @Id
     @GeneratedValue
@@ -0,0 +1,131 @@
+package ua.procamp;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ua.procamp.dao.AuthorBookDao;
+import ua.procamp.dao.AuthorBookDaoImpl;
+import ua.procamp.exception.AuthorBookDaoException;
+import ua.procamp.model.Author;
+import ua.procamp.model.Book;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class AuthorBookDaoTest {
+    private static final Map<String, String> STATISTICS_ENABLED = Map.of("hibernate.generate_statistics", "true");
+    private static EntityManagerUtil emUtil;
+    private static EntityManagerFactory entityManagerFactory;
+    private static AuthorBookDao authorBookDao;
+
+    @BeforeAll
+    static void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("BookAuthors", STATISTICS_ENABLED);
+        emUtil = new EntityManagerUtil(entityManagerFactory);
+        authorBookDao = new AuthorBookDaoImpl(entityManagerFactory, 2);
+    }
+
+    @AfterAll
+    static void destroy() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void testLinkAll() {
+        Author author = saveRandomAuthor();
+        Author otherAuthor = saveRandomAuthor();
+        List<Book> books = saveRandomBooks(3);
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        int linked = authorBookDao.linkAll(Map.of(
+                author.getId(), List.of(books.get(0).getId(), books.get(1).getId(), books.get(2).getId()),
+                otherAuthor.getId(), List.of(books.get(0).getId())));
+
+        assertThat(linked, equalTo(4));
+        assertThat(statistics.getCollectionLoadCount(), equalTo(0L));
+        emUtil.performWithinTx(entityManager -> {
+            assertThat(entityManager.find(Author.class, author.getId()).getBooks(),
+                    containsInAnyOrder(books.toArray()));
+            assertThat(entityManager.find(Book.class, books.get(0).getId()).getAuthors(),
+                    containsInAnyOrder(author, otherAuthor));
+        });
+    }
+
+    @Test
+    public void testLinkAllSkipsExistingLinks() {
+        Author author = saveRandomAuthor();
+        List<Book> books = saveRandomBooks(2);
+        authorBookDao.linkAll(Map.of(author.getId(), List.of(books.get(0).getId())));
+
+        int linked = authorBookDao.linkAll(Map.of(author.getId(),
+                List.of(books.get(0).getId(), books.get(1).getId(), books.get(1).getId())));
+
+        assertThat(linked, equalTo(1));
+        emUtil.performWithinTx(entityManager -> assertThat(
+                entityManager.find(Author.class, author.getId()).getBooks(), containsInAnyOrder(books.toArray())));
+    }
+
+    @Test
+    public void testUnlinkAll() {
+        Author author = saveRandomAuthor();
+        List<Book> books = saveRandomBooks(3);
+        authorBookDao.linkAll(Map.of(author.getId(), books.stream().map(Book::getId).collect(Collectors.toList())));
+
+        int unlinked = authorBookDao.unlinkAll(Map.of(author.getId(),
+                List.of(books.get(0).getId(), books.get(1).getId(), books.get(1).getId())));
+
+        assertThat(unlinked, equalTo(2));
+        emUtil.performWithinTx(entityManager -> assertThat(
+                entityManager.find(Author.class, author.getId()).getBooks(), contains(books.get(2))));
+    }
+
+    @Test
+    public void testLinkAllToMissingBook() {
+        Author author = saveRandomAuthor();
+        Book book = saveRandomBooks(1).get(0);
+        try {
+            authorBookDao.linkAll(Map.of(author.getId(), List.of(book.getId(), -1L)));
+            fail("Exception should be thrown");
+        } catch (Exception e) {
+            assertThat(e.getClass(), equalTo(AuthorBookDaoException.class));
+        }
+        emUtil.performWithinTx(entityManager -> assertThat(
+                entityManager.find(Author.class, author.getId()).getBooks(), empty()));
+    }
+
+    private Author saveRandomAuthor() {
+        Author author = new Author();
+        author.setFirstName(RandomStringUtils.randomAlphabetic(20));
+        author.setLastName(RandomStringUtils.randomAlphabetic(20));
+        emUtil.performWithinTx(entityManager -> entityManager.persist(author));
+        return author;
+    }
+
+    private List<Book> saveRandomBooks(int size) {
+        List<Book> books = Stream.generate(() -> {
+            Book book = new Book();
+            book.setName(RandomStringUtils.randomAlphabetic(20));
+            book.setIsbn(RandomStringUtils.randomAlphabetic(30));
+            return book;
+        }).limit(size).collect(Collectors.toList());
+        emUtil.performWithinTx(entityManager -> books.forEach(entityManager::persist));
+        return books;
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import javax.persistence.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -95,6 +96,31 @@ public class AuthorBookMappingTest {
         return author;
     }
 
+    @Test
+    public void testAuthorHashCodeIsStableAcrossPersist() {
+        Author author = createRandomAuthor();
+        int hashCode = author.hashCode();
+        Set<Author> authors = new HashSet<>(Set.of(author));
+
+        emUtil.performWithinTx(entityManager -> entityManager.persist(author));
+
+        assertThat(author.hashCode(), equalTo(hashCode));
+        assertThat(authors, hasItem(author));
+        Author foundAuthor = emUtil.performReturningWithinTx(entityManager ->
+                entityManager.find(Author.class, author.getId()));
+        assertThat(foundAuthor, equalTo(author));
+        assertThat(foundAuthor.hashCode(), equalTo(hashCode));
+    }
+
+    @Test
+    public void testNewAuthorsAreNotEqual() {
+        Author author = createRandomAuthor();
+        Author otherAuthor = createRandomAuthor();
+
+        assertThat(author, not(equalTo(otherAuthor)));
+        assertThat(author.getUuid(), notNullValue());
+    }
+
     @Test
     public void testSaveAuthorWithoutFirstName() {
         Author authorWithNullFirstName = createRandomAuthor();
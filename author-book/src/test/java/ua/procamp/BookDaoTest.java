@@ -0,0 +1,123 @@
+package ua.procamp;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.procamp.dao.BookDao;
+import ua.procamp.dao.BookDaoImpl;
+import ua.procamp.model.Book;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class BookDaoTest {
+    private static final Map<String, String> STATISTICS_ENABLED = Map.of("hibernate.generate_statistics", "true");
+    private static EntityManagerUtil emUtil;
+    private static EntityManagerFactory entityManagerFactory;
+    private static BookDao bookDao;
+
+    @BeforeAll
+    static void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("BookAuthors", STATISTICS_ENABLED);
+        emUtil = new EntityManagerUtil(entityManagerFactory);
+        bookDao = new BookDaoImpl(entityManagerFactory, 2);
+    }
+
+    @AfterAll
+    static void destroy() {
+        entityManagerFactory.close();
+    }
+
+    @BeforeEach
+    void evictCache() {
+        getSessionFactory().getCache().evictAllRegions();
+        getSessionFactory().getStatistics().clear();
+    }
+
+    @Test
+    public void testFindByIsbn() {
+        Book book = saveRandomBooks(1).get(0);
+
+        Book foundBook = bookDao.findByIsbn(book.getIsbn());
+
+        assertThat(foundBook, equalTo(book));
+        assertThat(foundBook.getId(), equalTo(book.getId()));
+    }
+
+    @Test
+    public void testFindByMissingIsbn() {
+        assertThat(bookDao.findByIsbn(RandomStringUtils.randomAlphabetic(30)), nullValue());
+    }
+
+    @Test
+    public void testFindByIsbnIsServedFromCache() {
+        Book book = saveRandomBooks(1).get(0);
+        evictCache();
+        bookDao.findByIsbn(book.getIsbn());
+        Statistics statistics = getSessionFactory().getStatistics();
+        statistics.clear();
+
+        Book foundBook = bookDao.findByIsbn(book.getIsbn());
+
+        assertThat(foundBook, equalTo(book));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+        assertThat(statistics.getNaturalIdCacheHitCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testFindAllByIsbn() {
+        List<Book> books = saveRandomBooks(3);
+        evictCache();
+        List<String> isbns = List.of(books.get(2).getIsbn(), RandomStringUtils.randomAlphabetic(30),
+                books.get(0).getIsbn(), books.get(1).getIsbn());
+        Statistics statistics = getSessionFactory().getStatistics();
+
+        List<Book> foundBooks = bookDao.findAllByIsbn(isbns);
+
+        assertThat(foundBooks, contains(books.get(2), books.get(0), books.get(1)));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    public void testFindAllByIsbnIsServedFromCache() {
+        List<Book> books = saveRandomBooks(3);
+        List<String> isbns = books.stream().map(Book::getIsbn).collect(Collectors.toList());
+        evictCache();
+        bookDao.findAllByIsbn(isbns);
+        Statistics statistics = getSessionFactory().getStatistics();
+        statistics.clear();
+
+        List<Book> foundBooks = bookDao.findAllByIsbn(isbns);
+
+        assertThat(foundBooks, equalTo(books));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+        assertThat(statistics.getNaturalIdCacheHitCount(), equalTo(3L));
+    }
+
+    private List<Book> saveRandomBooks(int size) {
+        List<Book> books = Stream.generate(() -> {
+            Book book = new Book();
+            book.setName(RandomStringUtils.randomAlphabetic(20));
+            book.setIsbn(RandomStringUtils.randomAlphabetic(30));
+            return book;
+        }).limit(size).collect(Collectors.toList());
+        emUtil.performWithinTx(entityManager -> books.forEach(entityManager::persist));
+        return books;
+    }
+
+    private SessionFactory getSessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,23 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncCompanyDao} is a non-blocking variant of {@link CompanyDao}. Each method performs the same operation
+ * as its {@link CompanyDao} counterpart on an executor and returns a future of its result.
+ * A {@link ua.procamp.exception.CompanyDaoException} completes the future exceptionally.
+ */
+public interface AsyncCompanyDao {
+    CompletableFuture<Company> findByIdFetchProducts(Long id);
+
+    CompletableFuture<Company> findById(Long id, CompanyFetchPlan fetchPlan);
+
+    CompletableFuture<List<Company>> findAllByIdFetchProducts(Collection<Long> ids);
+
+    CompletableFuture<List<Product>> findProductsFetchCompany(Long companyId);
+}
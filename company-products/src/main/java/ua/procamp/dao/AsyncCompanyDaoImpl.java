@@ -0,0 +1,39 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+import ua.procamp.util.async.AsyncDaoExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncCompanyDaoImpl implements AsyncCompanyDao {
+    private final CompanyDao companyDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncCompanyDaoImpl(CompanyDao companyDao, AsyncDaoExecutor executor) {
+        this.companyDao = companyDao;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Company> findByIdFetchProducts(Long id) {
+        return executor.supplyAsync(() -> companyDao.findByIdFetchProducts(id));
+    }
+
+    @Override
+    public CompletableFuture<Company> findById(Long id, CompanyFetchPlan fetchPlan) {
+        return executor.supplyAsync(() -> companyDao.findById(id, fetchPlan));
+    }
+
+    @Override
+    public CompletableFuture<List<Company>> findAllByIdFetchProducts(Collection<Long> ids) {
+        return executor.supplyAsync(() -> companyDao.findAllByIdFetchProducts(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<Product>> findProductsFetchCompany(Long companyId) {
+        return executor.supplyAsync(() -> companyDao.findProductsFetchCompany(companyId));
+    }
+}
@@ -1,6 +1,10 @@
 package ua.procamp.dao;
 
 import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CompanyDao {
     /**
@@ -10,4 +14,30 @@ public interface CompanyDao {
      * @return company with all its products
      */
     Company findByIdFetchProducts(Long id);
+
+    /**
+     * Retrieves a {@link Company} by id with associations defined by a fetch plan
+     *
+     * @param id        company id
+     * @param fetchPlan associations to load
+     * @return company, or {@code null} if it does not exist
+     */
+    Company findById(Long id, CompanyFetchPlan fetchPlan);
+
+    /**
+     * Retrieves companies with all their products by company ids with two queries: one for companies and one for
+     * products of all of them. Unlike a join fetch, company columns are not repeated for every product.
+     *
+     * @param ids company ids
+     * @return list of found companies with their products in the order of their ids
+     */
+    List<Company> findAllByIdFetchProducts(Collection<Long> ids);
+
+    /**
+     * Retrieves all products of a company with the company loaded by the same query
+     *
+     * @param companyId company id
+     * @return list of products with initialized {@link Product#getCompany()}
+     */
+    List<Product> findProductsFetchCompany(Long companyId);
 }
@@ -1,41 +1,98 @@
 package ua.procamp.dao;
 
-import org.hibernate.Session;
+import org.hibernate.Hibernate;
 import ua.procamp.exception.CompanyDaoException;
 import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
 public class CompanyDaoImpl implements CompanyDao {
-    private EntityManagerFactory entityManagerFactory;
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private TransactionTemplate transactionTemplate;
 
     public CompanyDaoImpl(EntityManagerFactory entityManagerFactory) {
-        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
     }
 
     @Override
     public Company findByIdFetchProducts(Long id) {
         return executeWithinPersistenceContextReturningResult(entityManager -> entityManager
-                .createQuery("SELECT c FROM Company c left join fetch c.products WHERE c.id=:id", Company.class)
+                .createQuery("SELECT c FROM Company c WHERE c.id=:id", Company.class)
                 .setParameter("id", id)
+                .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Company.WITH_PRODUCTS_GRAPH))
                 .getSingleResult());
     }
 
+    @Override
+    public Company findById(Long id, CompanyFetchPlan fetchPlan) {
+        return executeWithinPersistenceContextReturningResult(entityManager -> {
+            if (fetchPlan.getEntityGraphName() == null) {
+                return entityManager.find(Company.class, id);
+            }
+            EntityGraph<?> entityGraph = entityManager.getEntityGraph(fetchPlan.getEntityGraphName());
+            return entityManager.find(Company.class, id, Collections.singletonMap(FETCH_GRAPH_HINT, entityGraph));
+        });
+    }
+
+    /**
+     * {@link Company#getProducts()} is fetched by subselect, so initializing the first collection loads products of
+     * all companies returned by the first query with {@code company_id IN (SELECT ...)}.
+     */
+    @Override
+    public List<Company> findAllByIdFetchProducts(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return executeWithinPersistenceContextReturningResult(entityManager -> {
+            Map<Long, Company> companiesById = entityManager
+                    .createQuery("SELECT c FROM Company c WHERE c.id IN :ids", Company.class)
+                    .setParameter("ids", new LinkedHashSet<>(ids))
+                    .getResultList()
+                    .stream()
+                    .collect(toMap(Company::getId, identity()));
+            companiesById.values().forEach(company -> Hibernate.initialize(company.getProducts()));
+            return ids.stream()
+                    .map(companiesById::get)
+                    .filter(Objects::nonNull)
+                    .collect(toList());
+        });
+    }
+
+    @Override
+    public List<Product> findProductsFetchCompany(Long companyId) {
+        return executeWithinPersistenceContextReturningResult(entityManager -> {
+            EntityGraph<Product> entityGraph = entityManager.createEntityGraph(Product.class);
+            entityGraph.addAttributeNodes("company");
+            return entityManager
+                    .createQuery("SELECT p FROM Product p WHERE p.company.id = :companyId", Product.class)
+                    .setParameter("companyId", companyId)
+                    .setHint(FETCH_GRAPH_HINT, entityGraph)
+                    .getResultList();
+        });
+    }
+
     private <T> T executeWithinPersistenceContextReturningResult(Function<EntityManager, T> emFuntion) {
-        EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.unwrap(Session.class).setDefaultReadOnly(true);
-        entityManager.getTransaction().begin();
         try {
-            T result = emFuntion.apply(entityManager);
-            entityManager.getTransaction().commit();
-            return result;
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
+            return transactionTemplate.execute(TransactionOptions.readOnlyOptions(), emFuntion);
+        } catch (RuntimeException e) {
             throw new CompanyDaoException("Exception occurred during transaction...", e);
-        } finally {
-            entityManager.close();
         }
     }
 }
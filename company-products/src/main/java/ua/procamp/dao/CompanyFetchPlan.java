@@ -0,0 +1,32 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Company;
+
+/**
+ * {@link CompanyFetchPlan} defines which associations of {@link Company} are loaded together with it
+ */
+public enum CompanyFetchPlan {
+    /**
+     * Only columns of the company, {@link Company#getProducts()} is not initialized
+     */
+    COMPANY_ONLY(null),
+    /**
+     * Company with its products, loaded with one query by {@link Company#WITH_PRODUCTS_GRAPH}
+     */
+    COMPANY_WITH_PRODUCTS(Company.WITH_PRODUCTS_GRAPH);
+
+    private final String entityGraphName;
+
+    CompanyFetchPlan(String entityGraphName) {
+        this.entityGraphName = entityGraphName;
+    }
+
+    /**
+     * Returns a name of the entity graph used as a fetch graph, or {@code null} if the default fetch plan is used
+     *
+     * @return entity graph name
+     */
+    public String getEntityGraphName() {
+        return entityGraphName;
+    }
+}
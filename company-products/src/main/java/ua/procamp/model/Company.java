@@ -1,11 +1,15 @@
 package ua.procamp.model;
 
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.util.ArrayList;
@@ -27,6 +31,9 @@ import java.util.List;
  * - configure mandatory column "name" for field {@link Company#name}
  * <p>
  * - configure one to many relationship as mapped on the child side
+ * <p>
+ * - declare entity graph {@link Company#WITH_PRODUCTS_GRAPH} that fetches {@link Company#products}
+ * - load {@link Company#products} of all companies loaded by one query with a single subselect
  */
 @NoArgsConstructor
 @Getter
@@ -34,7 +41,10 @@ import java.util.List;
 @EqualsAndHashCode(of="id")
 @Entity
 @Table(name = "company")
+@NamedEntityGraph(name = Company.WITH_PRODUCTS_GRAPH, attributeNodes = @NamedAttributeNode("products"))
 public class Company {
+    public static final String WITH_PRODUCTS_GRAPH = "Company.withProducts";
+
     @Id
     @GeneratedValue
     private Long id;
@@ -44,6 +54,7 @@ public class Company {
 
     @Setter(AccessLevel.PRIVATE)
     @OneToMany(mappedBy = "company")
+    @Fetch(FetchMode.SUBSELECT)
     private List<Product> products = new ArrayList<>();
 
     public void addProduct(Product product) {
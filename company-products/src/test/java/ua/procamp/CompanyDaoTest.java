@@ -0,0 +1,132 @@
+package ua.procamp;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.procamp.dao.CompanyDao;
+import ua.procamp.dao.CompanyDaoImpl;
+import ua.procamp.dao.CompanyFetchPlan;
+import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CompanyDaoTest {
+    private static final Map<String, String> STATISTICS_ENABLED = Map.of("hibernate.generate_statistics", "true");
+    private static EntityManagerUtil emUtil;
+    private static EntityManagerFactory entityManagerFactory;
+    private static CompanyDao companyDao;
+
+    @BeforeAll
+    static void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("CompanyProducts", STATISTICS_ENABLED);
+        emUtil = new EntityManagerUtil(entityManagerFactory);
+        companyDao = new CompanyDaoImpl(entityManagerFactory);
+    }
+
+    @AfterAll
+    static void destroy() {
+        entityManagerFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        getStatistics().clear();
+    }
+
+    @Test
+    public void testFindCompanyOnly() {
+        Company company = saveRandomCompanyWithProducts(2);
+
+        Company foundCompany = companyDao.findById(company.getId(), CompanyFetchPlan.COMPANY_ONLY);
+
+        assertThat(foundCompany, equalTo(company));
+        assertThat(Hibernate.isInitialized(foundCompany.getProducts()), is(false));
+    }
+
+    @Test
+    public void testFindCompanyWithProducts() {
+        Company company = saveRandomCompanyWithProducts(2);
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Company foundCompany = companyDao.findById(company.getId(), CompanyFetchPlan.COMPANY_WITH_PRODUCTS);
+
+        assertThat(foundCompany, equalTo(company));
+        assertThat(foundCompany.getProducts(), containsInAnyOrder(company.getProducts().toArray()));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testFindMissingCompany() {
+        assertThat(companyDao.findById(-1L, CompanyFetchPlan.COMPANY_WITH_PRODUCTS), nullValue());
+    }
+
+    @Test
+    public void testFindAllByIdFetchProducts() {
+        List<Company> companies = Stream.generate(() -> saveRandomCompanyWithProducts(2))
+                .limit(3)
+                .collect(Collectors.toList());
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        List<Company> foundCompanies = companyDao.findAllByIdFetchProducts(
+                List.of(companies.get(2).getId(), -1L, companies.get(0).getId(), companies.get(1).getId()));
+
+        assertThat(foundCompanies, contains(companies.get(2), companies.get(0), companies.get(1)));
+        for (int i = 0; i < companies.size(); i++) {
+            assertThat(foundCompanies.get((i + 1) % 3).getProducts(),
+                    containsInAnyOrder(companies.get(i).getProducts().toArray()));
+        }
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    public void testFindProductsFetchCompany() {
+        Company company = saveRandomCompanyWithProducts(3);
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        List<Product> foundProducts = companyDao.findProductsFetchCompany(company.getId());
+
+        assertThat(foundProducts, containsInAnyOrder(company.getProducts().toArray()));
+        foundProducts.forEach(product -> {
+            assertThat(Hibernate.isInitialized(product.getCompany()), is(true));
+            assertThat(product.getCompany().getName(), equalTo(company.getName()));
+        });
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    private Company saveRandomCompanyWithProducts(int productCount) {
+        Company company = new Company();
+        company.setName(RandomStringUtils.randomAlphabetic(20));
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setName(RandomStringUtils.randomAlphabetic(20));
+            company.addProduct(product);
+        }
+        emUtil.performWithinTx(entityManager -> {
+            entityManager.persist(company);
+            company.getProducts().forEach(entityManager::persist);
+        });
+        return company;
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
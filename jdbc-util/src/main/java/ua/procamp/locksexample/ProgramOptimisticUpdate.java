@@ -0,0 +1,64 @@
+package ua.procamp.locksexample;
+
+import ua.procamp.Program;
+import ua.procamp.util.retry.OptimisticUpdate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link ProgramOptimisticUpdate} reads a program by id and writes it back with a version check
+ */
+public class ProgramOptimisticUpdate implements OptimisticUpdate<Program> {
+    private static final String SELECT_PROGRAM_SQL = "SELECT * FROM programs WHERE id = ?";
+    private static final String UPDATE_PROGRAM_OPTIMISTIC_SQL =
+            "UPDATE programs SET name = ?, description = ?, version = ?  WHERE id = ? AND version=?";
+
+    private final Long programId;
+
+    public ProgramOptimisticUpdate(Long programId) {
+        this.programId = programId;
+    }
+
+    @Override
+    public Program read(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_PROGRAM_SQL)) {
+            statement.setLong(1, programId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? programFromResultSet(resultSet) : null;
+        }
+    }
+
+    /**
+     * Changes {@code updated} (id and the new version) only when the update succeeds, so a failed attempt leaves the
+     * caller's object as it was.
+     */
+    @Override
+    public boolean write(Connection connection, Program current, Program updated) throws SQLException {
+        int newVersion = current.getVersion() + 1;
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_PROGRAM_OPTIMISTIC_SQL)) {
+            statement.setString(1, updated.getName());
+            statement.setString(2, updated.getDescription());
+            statement.setInt(3, newVersion);
+            statement.setLong(4, current.getId());
+            statement.setInt(5, current.getVersion());
+            if (statement.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        updated.setId(current.getId());
+        updated.setVersion(newVersion);
+        return true;
+    }
+
+    static Program programFromResultSet(ResultSet resultSet) throws SQLException {
+        return Program.builder()
+                .id(resultSet.getLong("id"))
+                .name(resultSet.getString("name"))
+                .description(resultSet.getString("description"))
+                .version(resultSet.getInt("version"))
+                .build();
+    }
+}
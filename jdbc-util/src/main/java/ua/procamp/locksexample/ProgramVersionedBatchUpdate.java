@@ -0,0 +1,35 @@
+package ua.procamp.locksexample;
+
+import ua.procamp.Program;
+import ua.procamp.util.retry.VersionedBatchUpdate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link ProgramVersionedBatchUpdate} writes name and description of programs with a version check. Each program
+ * holds the version it was read with, the version is incremented once the update is committed.
+ */
+public class ProgramVersionedBatchUpdate implements VersionedBatchUpdate<Program> {
+    private static final String UPDATE_PROGRAM_OPTIMISTIC_SQL =
+            "UPDATE programs SET name = ?, description = ?, version = ?  WHERE id = ? AND version=?";
+
+    @Override
+    public String getUpdateSql() {
+        return UPDATE_PROGRAM_OPTIMISTIC_SQL;
+    }
+
+    @Override
+    public void bind(PreparedStatement statement, Program program) throws SQLException {
+        statement.setString(1, program.getName());
+        statement.setString(2, program.getDescription());
+        statement.setInt(3, program.getVersion() + 1);
+        statement.setLong(4, program.getId());
+        statement.setInt(5, program.getVersion());
+    }
+
+    @Override
+    public void onUpdated(Program program) {
+        program.setVersion(program.getVersion() + 1);
+    }
+}
@@ -2,6 +2,8 @@ package ua.procamp.util;
 
 import org.h2.jdbcx.JdbcDataSource;
 import org.postgresql.ds.PGSimpleDataSource;
+import ua.procamp.util.pool.ConnectionPoolConfig;
+import ua.procamp.util.pool.PooledDataSource;
 
 import javax.sql.DataSource;
 import java.util.Map;
@@ -46,6 +48,26 @@ public class JdbcUtil {
         return String.format("jdbc:postgresql://localhost:5432/%s", databaseName);
     }
 
+    public static PooledDataSource createDefaultPooledInMemoryH2DataSource() {
+        String url = formatH2ImMemoryDbUrl(DEFAULT_DATABASE_NAME);
+        return createPooledInMemoryH2DataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD, ConnectionPoolConfig.defaultConfig());
+    }
+
+    public static PooledDataSource createPooledInMemoryH2DataSource(String url, String username, String pass,
+                                                                    ConnectionPoolConfig poolConfig) {
+        return new PooledDataSource(createInMemoryH2DataSource(url, username, pass), poolConfig);
+    }
+
+    public static PooledDataSource createDefaultPooledPostgresDataSource() {
+        String url = formatPostgresDbUrl(DEFAULT_DATABASE_NAME);
+        return createPooledPostgresDataSource(url, DEFAULT_USERNAME, DEFAULT_PASSWORD, ConnectionPoolConfig.defaultConfig());
+    }
+
+    public static PooledDataSource createPooledPostgresDataSource(String url, String username, String pass,
+                                                                  ConnectionPoolConfig poolConfig) {
+        return new PooledDataSource(createPostgresDataSource(url, username, pass), poolConfig);
+    }
+
     public static Map<String, String> getInMemoryDbPropertiesMap() {
         return Map.of(
                 "url", String.format("jdbc:h2:mem:%s", DEFAULT_DATABASE_NAME),
@@ -0,0 +1,153 @@
+package ua.procamp.util.async;
+
+import ua.procamp.util.pool.PooledDataSource;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncDaoExecutor} runs blocking DAO calls asynchronously and bounds the number of calls that run at the same
+ * time, usually to the size of the connection pool, so excess calls wait for a permit instead of a connection.
+ * <p>
+ * By default every call gets its own virtual thread, when the running JVM supports them (Java 21+). A waiting virtual
+ * thread does not hold a platform thread, so thousands of calls can be in flight. The project targets Java 11, so
+ * virtual threads are looked up reflectively. On older JVMs a fixed pool of platform threads sized to the concurrency
+ * limit is used instead, where the pool queue plays the role of the semaphore.
+ */
+public class AsyncDaoExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtual;
+
+    /**
+     * @param executor       executor that runs the calls, it is shut down by {@link #close()}
+     * @param maxConcurrency max number of calls that run at the same time
+     */
+    public AsyncDaoExecutor(ExecutorService executor, int maxConcurrency) {
+        this(executor, maxConcurrency, false);
+    }
+
+    private AsyncDaoExecutor(ExecutorService executor, int maxConcurrency, boolean virtual) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency should be positive");
+        }
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Creates an executor that uses virtual threads if they are supported, or a fixed thread pool otherwise
+     *
+     * @param maxConcurrency max number of calls that run at the same time
+     * @return new executor
+     */
+    public static AsyncDaoExecutor create(int maxConcurrency) {
+        ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        if (virtualThreadExecutor != null) {
+            return new AsyncDaoExecutor(virtualThreadExecutor, maxConcurrency, true);
+        }
+        return new AsyncDaoExecutor(newPlatformThreadPool(maxConcurrency), maxConcurrency, false);
+    }
+
+    /**
+     * Creates an executor with concurrency bounded by the max size of the connection pool
+     *
+     * @param dataSource connection pool used by the DAO
+     * @return new executor
+     */
+    public static AsyncDaoExecutor forPool(PooledDataSource dataSource) {
+        return create(dataSource.getConfig().getMaxSize());
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadPool(int size) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "async-dao-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> daoCall) {
+        return CompletableFuture.supplyAsync(() -> callWithPermit(daoCall), executor);
+    }
+
+    public CompletableFuture<Void> runAsync(Runnable daoCall) {
+        return supplyAsync(() -> {
+            daoCall.run();
+            return null;
+        });
+    }
+
+    private <T> T callWithPermit(Supplier<T> daoCall) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        try {
+            return daoCall.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the calls run on virtual threads
+     *
+     * @return whether virtual threads are used
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the number of calls that are running now
+     *
+     * @return active calls
+     */
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Returns an estimate of the number of calls waiting for a permit. Calls queued by a platform thread pool
+     * are not counted.
+     *
+     * @return waiting calls
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Stops accepting new calls, already submitted calls are completed
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,77 @@
+package ua.procamp.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link LatencyHistogram} is a lock-free histogram with exponential buckets (1us, 2us, 4us, ... ~35min).
+ * It is cheap enough to be updated on every connection acquisition.
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1);
+        int bucket = Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanMicros() {
+        return snapshot().getMeanMicros();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile in microseconds. The value is accurate up to the bucket width.
+     *
+     * @param percentile value in range (0, 100]
+     * @return upper bucket bound that contains the percentile
+     */
+    public long getPercentileMicros(double percentile) {
+        return snapshot().getPercentileMicros(percentile);
+    }
+
+    /**
+     * Returns the number of samples per bucket. Bucket {@code i} holds samples in range [2^i, 2^(i+1)) microseconds.
+     *
+     * @return bucket counts
+     */
+    public long[] getBucketCounts() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Copies current values, so they can be read consistently while the histogram keeps recording
+     *
+     * @return immutable snapshot
+     */
+    public LatencySnapshot snapshot() {
+        return new LatencySnapshot(getBucketCounts(), totalNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        LatencySnapshot snapshot = snapshot();
+        return String.format("LatencyHistogram(count=%d, mean=%dus, p50<=%dus, p99<=%dus)", snapshot.getCount(),
+                snapshot.getMeanMicros(), snapshot.getPercentileMicros(50), snapshot.getPercentileMicros(99));
+    }
+}
@@ -0,0 +1,64 @@
+package ua.procamp.util.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LatencySnapshot} is an immutable copy of {@link LatencyHistogram} taken at one moment, so values read from
+ * a metrics snapshot do not change while the histogram keeps recording.
+ */
+public final class LatencySnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long totalNanos;
+
+    LatencySnapshot(long[] bucketCounts, long totalNanos) {
+        this.bucketCounts = bucketCounts;
+        this.count = Arrays.stream(bucketCounts).sum();
+        this.totalNanos = totalNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanMicros() {
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / count);
+    }
+
+    /**
+     * Returns an upper bound of the given percentile in microseconds. The value is accurate up to the bucket width.
+     *
+     * @param percentile value in range (0, 100]
+     * @return upper bucket bound that contains the percentile
+     */
+    public long getPercentileMicros(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= threshold) {
+                return 1L << (i + 1);
+            }
+        }
+        return 1L << bucketCounts.length;
+    }
+
+    /**
+     * Returns the number of samples per bucket. Bucket {@code i} holds samples in range [2^i, 2^(i+1)) microseconds.
+     *
+     * @return a copy of bucket counts
+     */
+    public long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencySnapshot(count=%d, mean=%dus, p50<=%dus, p99<=%dus)",
+                getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(99));
+    }
+}
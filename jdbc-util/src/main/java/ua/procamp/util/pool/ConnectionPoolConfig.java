@@ -0,0 +1,80 @@
+package ua.procamp.util.pool;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * {@link ConnectionPoolConfig} holds sizing and timing settings of a {@link PooledDataSource}.
+ * Use {@link ConnectionPoolConfig#defaultConfig()} or the builder to create an instance.
+ */
+@Getter
+@ToString
+@Builder
+public class ConnectionPoolConfig {
+    /**
+     * Number of physical connections that are kept open even when they are idle
+     */
+    @Builder.Default
+    private int minSize = 2;
+
+    /**
+     * Upper bound of physical connections (borrowed and idle) opened by the pool
+     */
+    @Builder.Default
+    private int maxSize = 10;
+
+    /**
+     * How long {@link PooledDataSource#getConnection()} waits for a free connection before it fails
+     */
+    @Builder.Default
+    private Duration acquisitionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Idle connections that were not used for this time are closed (down to {@link #minSize})
+     */
+    @Builder.Default
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * How often the pool looks for idle connections to evict
+     */
+    @Builder.Default
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Whether an idle connection is checked with {@link java.sql.Connection#isValid(int)} before it is handed out
+     */
+    @Builder.Default
+    private boolean validateOnBorrow = true;
+
+    /**
+     * Timeout in seconds passed to {@link java.sql.Connection#isValid(int)}
+     */
+    @Builder.Default
+    private int validationTimeoutSeconds = 1;
+
+    /**
+     * Max number of prepared statements cached per physical connection, {@code 0} disables the cache
+     */
+    @Builder.Default
+    private int statementCacheSize = 32;
+
+    public static ConnectionPoolConfig defaultConfig() {
+        return ConnectionPoolConfig.builder().build();
+    }
+
+    void verify() {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize || statementCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid pool size: min = %d, max = %d, statement cache = %d",
+                            minSize, maxSize, statementCacheSize));
+        }
+        if (acquisitionTimeout.isNegative() || idleTimeout.isNegative() || evictionInterval.isNegative()
+                || evictionInterval.isZero()) {
+            throw new IllegalArgumentException("Pool timeouts must be positive: " + this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ua.procamp.util.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ua.procamp.util.metrics.LatencySnapshot;
+
+/**
+ * An immutable snapshot of {@link PooledDataSource} counters
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConnectionPoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final long created;
+    private final long evicted;
+    private final long validationFailures;
+    private final long acquisitionTimeouts;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final LatencySnapshot acquireLatency;
+
+    public int getTotal() {
+        return active + idle;
+    }
+}
@@ -0,0 +1,324 @@
+package ua.procamp.util.pool;
+
+import ua.procamp.util.metrics.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * {@link PooledDataSource} is a bounded connection pool on top of any non-pooling {@link DataSource}
+ * (e.g. {@link org.h2.jdbcx.JdbcDataSource} or {@link org.postgresql.ds.PGSimpleDataSource}).
+ * <p>
+ * Connections returned by {@link PooledDataSource#getConnection()} are proxies. Calling {@link Connection#close()}
+ * returns the physical connection to the pool instead of closing it, so the code that uses a plain
+ * {@link DataSource} does not need any changes.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private final DataSource targetDataSource;
+    private final ConnectionPoolConfig config;
+
+    private final LinkedBlockingDeque<PooledEntry> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public PooledDataSource(DataSource targetDataSource, ConnectionPoolConfig config) {
+        config.verify();
+        this.targetDataSource = targetDataSource;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillUpToMinSize();
+        long interval = config.getEvictionInterval().toMillis();
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        verifyNotClosed();
+        long start = System.nanoTime();
+        acquirePermit();
+        try {
+            PooledEntry entry = borrowEntry();
+            activeCount.incrementAndGet();
+            acquireLatency.record(System.nanoTime() - start);
+            return createProxy(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the credentials of the target DataSource");
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            long timeout = config.getAcquisitionTimeout().toNanos();
+            if (!permits.tryAcquire(timeout, TimeUnit.NANOSECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException(String.format("Cannot acquire a connection within %d ms (active = %d)",
+                        config.getAcquisitionTimeout().toMillis(), activeCount.get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PooledEntry borrowEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            if (isUsable(entry.connection)) {
+                return entry;
+            }
+            validationFailureCount.increment();
+            closeQuietly(entry.connection);
+        }
+        return openEntry();
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !config.isValidateOnBorrow() || connection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry openEntry() throws SQLException {
+        Connection connection = targetDataSource.getConnection();
+        createdCount.increment();
+        StatementCache statementCache = new StatementCache(connection, config.getStatementCacheSize(),
+                statementCacheHits, statementCacheMisses);
+        return new PooledEntry(connection, statementCache);
+    }
+
+    private Connection createProxy(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(entry));
+    }
+
+    private void release(PooledEntry entry) {
+        Connection physicalConnection = entry.connection;
+        try {
+            if (closed || physicalConnection.isClosed()) {
+                closeQuietly(physicalConnection);
+            } else {
+                entry.statementCache.releaseAll();
+                resetState(physicalConnection);
+                entry.lastUsedNanos = System.nanoTime();
+                idleConnections.offerFirst(entry);
+            }
+        } catch (SQLException e) {
+            closeQuietly(physicalConnection);
+        } finally {
+            activeCount.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void resetState(Connection connection) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        if (connection.isReadOnly()) {
+            connection.setReadOnly(false);
+        }
+        connection.clearWarnings();
+    }
+
+    private void evictIdleConnections() {
+        long deadline = System.nanoTime() - config.getIdleTimeout().toNanos();
+        Iterator<PooledEntry> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && activeCount.get() + idleConnections.size() > config.getMinSize()) {
+            PooledEntry entry = oldestFirst.next();
+            if (entry.lastUsedNanos - deadline < 0 && idleConnections.remove(entry)) {
+                evictedCount.increment();
+                closeQuietly(entry.connection);
+            }
+        }
+        fillUpToMinSize();
+    }
+
+    private void fillUpToMinSize() {
+        try {
+            while (!closed && activeCount.get() + idleConnections.size() < config.getMinSize()) {
+                idleConnections.offerLast(openEntry());
+            }
+        } catch (SQLException e) {
+            // the database may be temporary unavailable, next eviction run will try again
+        }
+    }
+
+    /**
+     * Returns a snapshot of current pool counters
+     *
+     * @return pool metrics
+     */
+    public ConnectionPoolMetrics getMetrics() {
+        return new ConnectionPoolMetrics(activeCount.get(), idleConnections.size(), permits.getQueueLength(),
+                createdCount.sum(), evictedCount.sum(), validationFailureCount.sum(), timeoutCount.sum(),
+                statementCacheHits.sum(), statementCacheMisses.sum(), acquireLatency.snapshot());
+    }
+
+    public ConnectionPoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes all idle connections. Borrowed connections are closed when they are returned to the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            closeQuietly(entry.connection);
+        }
+    }
+
+    private void verifyNotClosed() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return targetDataSource.getParentLogger();
+    }
+
+    private static class PooledEntry {
+        private final Connection connection;
+        private final StatementCache statementCache;
+        private volatile long lastUsedNanos;
+
+        private PooledEntry(Connection connection, StatementCache statementCache) {
+            this.connection = connection;
+            this.statementCache = statementCache;
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Delegates all calls to the physical connection except {@link Connection#close()} that returns it to the pool,
+     * and {@link Connection#prepareStatement(String)} that goes through the {@link StatementCache}.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private final Connection physicalConnection;
+        private boolean logicallyClosed;
+
+        private PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+            this.physicalConnection = entry.connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || physicalConnection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physicalConnection;
+                default:
+                    if (logicallyClosed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    if (entry.statementCache.isEnabled() && StatementCache.isCacheable(method)) {
+                        return entry.statementCache.prepareStatement((Connection) proxy, (String) args[0],
+                                StatementCache.autoGeneratedKeys(args));
+                    }
+                    try {
+                        return method.invoke(physicalConnection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
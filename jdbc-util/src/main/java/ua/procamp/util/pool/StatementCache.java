@@ -0,0 +1,218 @@
+package ua.procamp.util.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StatementCache} keeps prepared statements of one physical connection, so repeated
+ * {@link Connection#prepareStatement(String)} calls with the same SQL reuse the statement that is already parsed
+ * by the database. The cache is LRU-bounded, evicted statements are closed.
+ * <p>
+ * Statements handed out by the cache are proxies. {@link PreparedStatement#close()} closes the current result set
+ * and puts the statement back into the cache instead of closing it. A statement is never handed out twice at the
+ * same time: if it is still in use, a new non-cached statement is prepared. Fetch size, max rows, query timeout and
+ * fetch direction are reset to the driver defaults when the statement is given back, so settings of one caller do
+ * not leak into the next lease.
+ */
+class StatementCache {
+    private final Connection physicalConnection;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<StatementKey, CachedStatement> statements;
+
+    StatementCache(Connection physicalConnection, int maxSize, LongAdder hits, LongAdder misses) {
+        this.physicalConnection = physicalConnection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    PreparedStatement prepareStatement(Connection connectionProxy, String sql, int autoGeneratedKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached == null) {
+            misses.increment();
+            cached = new CachedStatement(physicalConnection.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+            PreparedStatement leased = cached.lease(connectionProxy);
+            evictEldest();
+            return leased;
+        } else if (cached.inUse) {
+            misses.increment();
+            return physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            hits.increment();
+            return cached.lease(connectionProxy);
+        }
+    }
+
+    private void evictEldest() throws SQLException {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > maxSize && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            if (!eldest.inUse) {
+                eldestFirst.remove();
+                eldest.statement.close();
+            }
+        }
+    }
+
+    /**
+     * Marks all statements as free. It is called when the logical connection is returned to the pool, so statements
+     * that caller forgot to close do not occupy the cache forever.
+     */
+    void releaseAll() throws SQLException {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.giveBack();
+            }
+        }
+    }
+
+    private static class StatementKey {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            StatementKey that = (StatementKey) o;
+            return autoGeneratedKeys == that.autoGeneratedKeys && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+
+    private static class CachedStatement {
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private final int defaultFetchDirection;
+        private boolean inUse;
+        private long lease;
+
+        private CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+            this.defaultFetchDirection = statement.getFetchDirection();
+        }
+
+        private PreparedStatement lease(Connection connectionProxy) {
+            inUse = true;
+            lease++;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new CachedStatementHandler(this, lease, connectionProxy));
+        }
+
+        private void giveBack() throws SQLException {
+            inUse = false;
+            lease++;
+            // Statement.close() closes the current result set, the next lease must not inherit an open cursor
+            ResultSet resultSet = statement.getResultSet();
+            if (resultSet != null && !resultSet.isClosed()) {
+                resultSet.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            restoreDefaults();
+        }
+
+        private void restoreDefaults() throws SQLException {
+            // max rows first: some drivers reject a fetch size that is bigger than max rows
+            if (statement.getMaxRows() != defaultMaxRows) {
+                statement.setMaxRows(defaultMaxRows);
+            }
+            if (statement.getFetchSize() != defaultFetchSize) {
+                statement.setFetchSize(defaultFetchSize);
+            }
+            if (statement.getQueryTimeout() != defaultQueryTimeout) {
+                statement.setQueryTimeout(defaultQueryTimeout);
+            }
+            if (statement.getFetchDirection() != defaultFetchDirection) {
+                statement.setFetchDirection(defaultFetchDirection);
+            }
+        }
+    }
+
+    private static class CachedStatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final long lease;
+        private final Connection connectionProxy;
+
+        private CachedStatementHandler(CachedStatement cached, long lease, Connection connectionProxy) {
+            this.cached = cached;
+            this.lease = lease;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean leaseIsActive = cached.lease == lease;
+            switch (method.getName()) {
+                case "close":
+                    if (leaseIsActive) {
+                        cached.giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return !leaseIsActive || cached.statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + cached.statement;
+                default:
+                    if (!leaseIsActive) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    try {
+                        return method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    static boolean isCacheable(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return method.getName().equals("prepareStatement")
+                && parameterTypes.length >= 1 && parameterTypes.length <= 2
+                && (parameterTypes.length == 1 || parameterTypes[1] == int.class);
+    }
+
+    static int autoGeneratedKeys(Object[] args) {
+        return args.length == 2 ? (int) args[1] : Statement.NO_GENERATED_KEYS;
+    }
+}
@@ -0,0 +1,15 @@
+package ua.procamp.util.retry;
+
+/**
+ * Defines what {@link OptimisticUpdateExecutor#executeBatch} does when some rows of a batch were changed concurrently
+ */
+public enum BatchCommitMode {
+    /**
+     * Rows that were not changed concurrently are committed, conflicting rows are reported
+     */
+    PARTIAL,
+    /**
+     * A single conflict rolls back the whole batch
+     */
+    ALL_OR_NOTHING
+}
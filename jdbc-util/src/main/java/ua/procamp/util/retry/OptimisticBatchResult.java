@@ -0,0 +1,35 @@
+package ua.procamp.util.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link OptimisticUpdateExecutor#executeBatch} per row
+ *
+ * @param <T> row type
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OptimisticBatchResult<T> {
+    /**
+     * Rows that were written and committed
+     */
+    private final List<T> updated;
+    /**
+     * Rows that were changed concurrently and were not written
+     */
+    private final List<T> conflicted;
+    /**
+     * Rows that matched their versions but were rolled back because of a conflict in
+     * {@link BatchCommitMode#ALL_OR_NOTHING} mode
+     */
+    private final List<T> rolledBack;
+
+    public boolean hasConflicts() {
+        return !conflicted.isEmpty();
+    }
+}
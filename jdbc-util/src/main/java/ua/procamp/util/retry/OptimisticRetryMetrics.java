@@ -0,0 +1,32 @@
+package ua.procamp.util.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ua.procamp.util.metrics.LatencySnapshot;
+
+/**
+ * An immutable snapshot of {@link OptimisticUpdateExecutor} counters
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OptimisticRetryMetrics {
+    private final long executions;
+    private final long updated;
+    private final long conflicts;
+    private final long retries;
+    private final long exhausted;
+    private final long backoffMillis;
+    private final LatencySnapshot latency;
+
+    /**
+     * Returns a share of attempts that ended with a conflict
+     *
+     * @return conflict rate in range [0, 1]
+     */
+    public double getConflictRate() {
+        long attempts = executions + retries;
+        return attempts == 0 ? 0 : (double) conflicts / attempts;
+    }
+}
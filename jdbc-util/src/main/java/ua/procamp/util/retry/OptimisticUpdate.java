@@ -0,0 +1,33 @@
+package ua.procamp.util.retry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link OptimisticUpdate} reads and writes a single versioned row for an {@link OptimisticUpdateExecutor}.
+ * Both methods are called within the same transaction.
+ *
+ * @param <T> row type
+ */
+public interface OptimisticUpdate<T> {
+    /**
+     * Reads the current state of the row including its version
+     *
+     * @param connection connection with a started transaction
+     * @return current row, or {@code null} if the row does not exist
+     * @throws SQLException if the row cannot be read
+     */
+    T read(Connection connection) throws SQLException;
+
+    /**
+     * Writes the new state only if the version of the row is still the one that was read, e.g. with
+     * {@code UPDATE ... SET ..., version = version + 1 WHERE id = ? AND version = ?}
+     *
+     * @param connection connection with a started transaction
+     * @param current    state returned by {@link #read(Connection)}
+     * @param updated    new state produced by the mutation
+     * @return {@code true} if the row was updated, {@code false} if it was changed concurrently
+     * @throws SQLException if the row cannot be written
+     */
+    boolean write(Connection connection, T current, T updated) throws SQLException;
+}
@@ -0,0 +1,11 @@
+package ua.procamp.util.retry;
+
+public class OptimisticUpdateException extends RuntimeException {
+    public OptimisticUpdateException(String message) {
+        super(message);
+    }
+
+    public OptimisticUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,236 @@
+package ua.procamp.util.retry;
+
+import ua.procamp.util.metrics.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link OptimisticUpdateExecutor} updates a versioned row without holding a lock between read and write. Each attempt
+ * reads the row, applies the mutation and writes the result in a separate transaction. If the row was changed
+ * concurrently (the versioned write affects no rows, or the database reports a serialization failure), the transaction
+ * is rolled back and the whole read-mutate-write cycle is retried after a backoff defined by {@link RetryPolicy}.
+ * <p>
+ * Unlike {@code SELECT ... FOR UPDATE}, readers and other writers are never blocked, so the throughput on contended
+ * rows is limited by the conflict rate instead of the lock hold time.
+ */
+public class OptimisticUpdateExecutor {
+    private static final String SERIALIZATION_FAILURE_SQL_STATE = "40001";
+
+    private final DataSource dataSource;
+    private final RetryPolicy retryPolicy;
+
+    private final LongAdder executionCount = new LongAdder();
+    private final LongAdder updatedCount = new LongAdder();
+    private final LongAdder conflictCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder exhaustedCount = new LongAdder();
+    private final LongAdder backoffNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public OptimisticUpdateExecutor(DataSource dataSource, RetryPolicy retryPolicy) {
+        retryPolicy.verify();
+        this.dataSource = dataSource;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Reads the row, applies the mutation and writes the result, retrying on conflicts
+     *
+     * @param update   reads and writes the row
+     * @param mutation produces a new state from the current one. It may be called several times and must not modify
+     *                 its argument, since the current state holds the version expected by the write
+     * @param <T>      row type
+     * @return updated state, or {@code null} if the row does not exist
+     * @throws RetryExhaustedException  if all attempts ended with a conflict
+     * @throws OptimisticUpdateException if the row cannot be read or written
+     */
+    public <T> T execute(OptimisticUpdate<T> update, UnaryOperator<T> mutation) {
+        long start = System.nanoTime();
+        executionCount.increment();
+        try {
+            return executeWithRetries(update, mutation);
+        } catch (SQLException e) {
+            throw new OptimisticUpdateException("Exception occurred while updating a versioned row", e);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T executeWithRetries(OptimisticUpdate<T> update, UnaryOperator<T> mutation) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            Attempt<T> result = tryUpdate(update, mutation);
+            if (!result.conflict) {
+                return result.value;
+            }
+            conflictCount.increment();
+            if (attempt >= retryPolicy.getMaxAttempts()) {
+                exhaustedCount.increment();
+                throw new RetryExhaustedException(
+                        String.format("Row was changed concurrently in all %d attempts", attempt));
+            }
+            retryCount.increment();
+            backoff(attempt);
+        }
+    }
+
+    private <T> Attempt<T> tryUpdate(OptimisticUpdate<T> update, UnaryOperator<T> mutation) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T current = update.read(connection);
+                if (current == null) {
+                    connection.rollback();
+                    return Attempt.done(null);
+                }
+                T updated = mutation.apply(current);
+                if (!update.write(connection, current, updated)) {
+                    connection.rollback();
+                    return Attempt.conflict();
+                }
+                connection.commit();
+                updatedCount.increment();
+                return Attempt.done(updated);
+            } catch (SQLException e) {
+                connection.rollback();
+                if (SERIALIZATION_FAILURE_SQL_STATE.equals(e.getSQLState())) {
+                    return Attempt.conflict();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sends versioned updates of all rows in one JDBC batch within one transaction and tells updated rows from
+     * conflicting ones by their update counts. Conflicting rows are not retried: the caller is expected to re-read
+     * and resubmit them.
+     *
+     * @param update     statement and parameter binding of a row
+     * @param rows       rows holding their new state and the version they were read with
+     * @param commitMode whether the rows without conflicts are committed when others conflict
+     * @param <T>        row type
+     * @return updated, conflicting and rolled back rows
+     * @throws OptimisticUpdateException if the batch fails or the driver does not report update counts
+     */
+    public <T> OptimisticBatchResult<T> executeBatch(VersionedBatchUpdate<T> update, List<T> rows,
+                                                     BatchCommitMode commitMode) {
+        long start = System.nanoTime();
+        executionCount.increment();
+        try {
+            OptimisticBatchResult<T> result = executeBatchWithinTransaction(update, rows, commitMode);
+            result.getUpdated().forEach(update::onUpdated);
+            updatedCount.add(result.getUpdated().size());
+            conflictCount.add(result.getConflicted().size());
+            return result;
+        } catch (SQLException e) {
+            throw new OptimisticUpdateException("Exception occurred while updating a batch of versioned rows", e);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private <T> OptimisticBatchResult<T> executeBatchWithinTransaction(VersionedBatchUpdate<T> update, List<T> rows,
+                                                                       BatchCommitMode commitMode) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                int[] updateCounts = executeBatch(connection, update, rows);
+                List<T> updated = new ArrayList<>(rows.size());
+                List<T> conflicted = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    (isUpdated(updateCounts[i]) ? updated : conflicted).add(rows.get(i));
+                }
+                if (!conflicted.isEmpty() && commitMode == BatchCommitMode.ALL_OR_NOTHING) {
+                    connection.rollback();
+                    return new OptimisticBatchResult<>(Collections.emptyList(), conflicted, updated);
+                }
+                connection.commit();
+                return new OptimisticBatchResult<>(updated, conflicted, Collections.emptyList());
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private <T> int[] executeBatch(Connection connection, VersionedBatchUpdate<T> update, List<T> rows)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(update.getUpdateSql())) {
+            for (T row : rows) {
+                update.bind(statement, row);
+                statement.addBatch();
+            }
+            int[] updateCounts = statement.executeBatch();
+            if (updateCounts.length != rows.size()) {
+                throw new OptimisticUpdateException(String.format("Batch of %d rows returned %d update counts",
+                        rows.size(), updateCounts.length));
+            }
+            return updateCounts;
+        }
+    }
+
+    private static boolean isUpdated(int updateCount) {
+        if (updateCount == Statement.SUCCESS_NO_INFO) {
+            throw new OptimisticUpdateException("JDBC driver does not report update counts of a batch, " +
+                    "conflicts cannot be detected");
+        }
+        return updateCount > 0;
+    }
+
+    private void backoff(int failedAttempts) {
+        long nanos = retryPolicy.getBackoffNanos(failedAttempts);
+        backoffNanos.add(nanos);
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticUpdateException("Interrupted while waiting for a retry", e);
+        }
+    }
+
+    /**
+     * Returns a snapshot of current retry counters
+     *
+     * @return retry metrics
+     */
+    public OptimisticRetryMetrics getMetrics() {
+        return new OptimisticRetryMetrics(executionCount.sum(), updatedCount.sum(), conflictCount.sum(),
+                retryCount.sum(), exhaustedCount.sum(), TimeUnit.NANOSECONDS.toMillis(backoffNanos.sum()),
+                latency.snapshot());
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    private static class Attempt<T> {
+        private final T value;
+        private final boolean conflict;
+
+        private Attempt(T value, boolean conflict) {
+            this.value = value;
+            this.conflict = conflict;
+        }
+
+        private static <T> Attempt<T> done(T value) {
+            return new Attempt<>(value, false);
+        }
+
+        private static <T> Attempt<T> conflict() {
+            return new Attempt<>(null, true);
+        }
+    }
+}
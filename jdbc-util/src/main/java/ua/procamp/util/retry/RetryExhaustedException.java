@@ -0,0 +1,10 @@
+package ua.procamp.util.retry;
+
+/**
+ * Thrown when every attempt of an {@link OptimisticUpdateExecutor} ended with a conflict
+ */
+public class RetryExhaustedException extends OptimisticUpdateException {
+    public RetryExhaustedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,74 @@
+package ua.procamp.util.retry;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RetryPolicy} holds the number of attempts and backoff settings of an {@link OptimisticUpdateExecutor}.
+ * Use {@link RetryPolicy#defaultPolicy()} or the builder to create an instance.
+ */
+@Getter
+@ToString
+@Builder
+public class RetryPolicy {
+    /**
+     * Max number of attempts including the first one, {@code 1} disables retries
+     */
+    @Builder.Default
+    private int maxAttempts = 5;
+
+    /**
+     * Backoff before the first retry
+     */
+    @Builder.Default
+    private Duration initialBackoff = Duration.ofMillis(5);
+
+    /**
+     * Upper bound of a single backoff
+     */
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofMillis(500);
+
+    /**
+     * Factor the backoff grows by after each conflict
+     */
+    @Builder.Default
+    private double multiplier = 2.0;
+
+    /**
+     * Whether a backoff is picked at random between zero and its exponential value ("full jitter"), so the
+     * conflicting writers do not retry in lockstep and collide again
+     */
+    @Builder.Default
+    private boolean jitter = true;
+
+    public static RetryPolicy defaultPolicy() {
+        return RetryPolicy.builder().build();
+    }
+
+    void verify() {
+        if (maxAttempts <= 0 || multiplier < 1.0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid retry policy: max attempts = %d, multiplier = %s", maxAttempts, multiplier));
+        }
+        if (initialBackoff.isNegative() || maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("Backoff must not be negative: " + this);
+        }
+    }
+
+    /**
+     * Returns a backoff before the next attempt
+     *
+     * @param failedAttempts number of attempts that have already failed, starting from {@code 1}
+     * @return backoff in nanoseconds
+     */
+    long getBackoffNanos(int failedAttempts) {
+        double exponentialNanos = initialBackoff.toNanos() * Math.pow(multiplier, failedAttempts - 1);
+        long backoffNanos = (long) Math.min(exponentialNanos, maxBackoff.toNanos());
+        return jitter ? ThreadLocalRandom.current().nextLong(backoffNanos + 1) : backoffNanos;
+    }
+}
@@ -0,0 +1,35 @@
+package ua.procamp.util.retry;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * {@link VersionedBatchUpdate} writes many versioned rows of the same table with one JDBC batch
+ *
+ * @param <T> row type
+ */
+public interface VersionedBatchUpdate<T> {
+    /**
+     * Returns a statement that updates a row only if its version is still the expected one, e.g.
+     * {@code UPDATE ... SET ..., version = ? WHERE id = ? AND version = ?}
+     *
+     * @return update SQL
+     */
+    String getUpdateSql();
+
+    /**
+     * Binds the new state of the row and its expected version
+     *
+     * @param statement statement created from {@link #getUpdateSql()}
+     * @param row       row that holds the new state and the version it was read with
+     * @throws SQLException if parameters cannot be set
+     */
+    void bind(PreparedStatement statement, T row) throws SQLException;
+
+    /**
+     * Called for every row after its update is committed, e.g. to increment its version
+     *
+     * @param row updated row
+     */
+    void onUpdated(T row);
+}
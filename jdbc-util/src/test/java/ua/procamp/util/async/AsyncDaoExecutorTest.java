@@ -0,0 +1,105 @@
+package ua.procamp.util.async;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AsyncDaoExecutorTest {
+    private AsyncDaoExecutor executor;
+
+    @After
+    public void destroy() {
+        executor.close();
+    }
+
+    @Test
+    public void testVirtualThreadsAreUsedWhenSupported() {
+        executor = AsyncDaoExecutor.create(2);
+
+        assertEquals(Runtime.version().feature() >= 21, executor.isVirtual());
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() {
+        executor = AsyncDaoExecutor.create(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int value = i;
+            futures.add(executor.supplyAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(29, futures.get(29).join().intValue());
+        assertEquals(0, executor.getActive());
+    }
+
+    @Test
+    public void testCustomExecutorIsBoundedBySemaphore() {
+        executor = new AsyncDaoExecutor(Executors.newCachedThreadPool(), 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CompletableFuture<?>[] futures = new CompletableFuture[10];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testDaoExceptionCompletesFutureExceptionally() {
+        executor = AsyncDaoExecutor.create(1);
+        IllegalStateException daoException = new IllegalStateException("DAO call failed");
+
+        try {
+            executor.supplyAsync(() -> {
+                throw daoException;
+            }).join();
+            fail("Exception was't thrown");
+        } catch (CompletionException e) {
+            assertSame(daoException, e.getCause());
+            assertEquals(0, executor.getActive());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxConcurrencyShouldBePositive() {
+        executor = AsyncDaoExecutor.create(1);
+        new AsyncDaoExecutor(Executors.newSingleThreadExecutor(), 0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
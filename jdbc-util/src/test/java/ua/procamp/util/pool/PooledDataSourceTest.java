@@ -0,0 +1,235 @@
+package ua.procamp.util.pool;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import ua.procamp.util.JdbcUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PooledDataSourceTest {
+    private static final String URL = "jdbc:h2:mem:pool_test_db;DB_CLOSE_DELAY=-1";
+
+    private PooledDataSource dataSource;
+
+    @After
+    public void destroy() {
+        dataSource.close();
+    }
+
+    private PooledDataSource createDataSource(ConnectionPoolConfig config) {
+        return JdbcUtil.createPooledInMemoryH2DataSource(URL, "pool_user", "pool_pass", config);
+    }
+
+    @Test
+    public void testPoolIsFilledUpToMinSize() {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(3).maxSize(5).build());
+
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+
+        assertEquals(3, metrics.getIdle());
+        assertEquals(0, metrics.getActive());
+    }
+
+    @Test
+    public void testClosedConnectionIsReused() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(1, dataSource.getMetrics().getActive());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+        assertEquals(1, metrics.getCreated());
+        assertEquals(0, metrics.getActive());
+        assertEquals(1, metrics.getIdle());
+        assertEquals(2, metrics.getAcquireLatency().getCount());
+    }
+
+    @Test
+    public void testMetricsSnapshotDoesNotChange() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        dataSource.getConnection().close();
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+        long[] bucketCounts = metrics.getAcquireLatency().getBucketCounts();
+
+        dataSource.getConnection().close();
+
+        assertEquals(1, metrics.getAcquireLatency().getCount());
+        assertArrayEquals(bucketCounts, metrics.getAcquireLatency().getBucketCounts());
+        assertEquals(2, dataSource.getMetrics().getAcquireLatency().getCount());
+    }
+
+    @Test
+    public void testAcquisitionTimesOutWhenPoolIsExhausted() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder()
+                .minSize(0)
+                .maxSize(1)
+                .acquisitionTimeout(Duration.ofMillis(50))
+                .build());
+
+        try (Connection connection = dataSource.getConnection()) {
+            dataSource.getConnection();
+            fail("Exception was't thrown");
+        } catch (SQLTimeoutException e) {
+            assertEquals(1, dataSource.getMetrics().getAcquisitionTimeouts());
+        }
+    }
+
+    @Test
+    public void testUncommittedTransactionIsRolledBackOnReturn() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE IF NOT EXISTS pool_items(id BIGINT)");
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.createStatement().execute("INSERT INTO pool_items(id) VALUES (1)");
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.getAutoCommit());
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM pool_items");
+            resultSet.next();
+            assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    public void testClosedProxyCannotBeUsed() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.defaultConfig());
+        Connection connection = dataSource.getConnection();
+        connection.close();
+
+        try {
+            connection.createStatement();
+            fail("Exception was't thrown");
+        } catch (SQLException e) {
+            assertEquals("Connection is closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        Connection physicalConnection;
+        try (Connection connection = dataSource.getConnection()) {
+            physicalConnection = connection.unwrap(Connection.class);
+        }
+        physicalConnection.close();
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(1, dataSource.getMetrics().getValidationFailures());
+        assertEquals(2, dataSource.getMetrics().getCreated());
+    }
+
+    @Test
+    public void testPreparedStatementIsReusedAfterClose() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        String sql = "SELECT ?";
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setInt(1, i);
+                ResultSet resultSet = statement.executeQuery();
+                resultSet.next();
+                assertEquals(i, resultSet.getInt(1));
+                assertSame(connection, statement.getConnection());
+            }
+        }
+
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+        assertEquals(1, metrics.getStatementCacheMisses());
+        assertEquals(2, metrics.getStatementCacheHits());
+    }
+
+    @Test
+    public void testOpenResultSetIsClosedWithCachedStatement() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        String sql = "SELECT 1";
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            ResultSet resultSet = statement.executeQuery();
+            statement.close();
+
+            assertTrue(resultSet.isClosed());
+            try (PreparedStatement reused = connection.prepareStatement(sql)) {
+                ResultSet inherited = reused.getResultSet();
+                assertTrue(inherited == null || inherited.isClosed());
+            }
+        }
+
+        assertEquals(1, dataSource.getMetrics().getStatementCacheHits());
+    }
+
+    @Test
+    public void testStatementSettingsAreResetOnReturn() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).build());
+        String sql = "SELECT 1";
+        int defaultFetchSize;
+        int defaultMaxRows;
+        int defaultQueryTimeout;
+        int defaultFetchDirection;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            defaultFetchSize = statement.getFetchSize();
+            defaultMaxRows = statement.getMaxRows();
+            defaultQueryTimeout = statement.getQueryTimeout();
+            defaultFetchDirection = statement.getFetchDirection();
+            statement.setFetchSize(defaultFetchSize + 7);
+            statement.setMaxRows(defaultMaxRows + 3);
+            statement.setQueryTimeout(defaultQueryTimeout + 5);
+            statement.setFetchDirection(ResultSet.FETCH_REVERSE);
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            assertEquals(defaultFetchSize, statement.getFetchSize());
+            assertEquals(defaultMaxRows, statement.getMaxRows());
+            assertEquals(defaultQueryTimeout, statement.getQueryTimeout());
+            assertEquals(defaultFetchDirection, statement.getFetchDirection());
+        }
+
+        assertEquals(1, dataSource.getMetrics().getStatementCacheHits());
+    }
+
+    @Test
+    public void testStatementInUseIsNotSharedAndCacheIsBounded() throws SQLException {
+        dataSource = createDataSource(ConnectionPoolConfig.builder().minSize(0).maxSize(1).statementCacheSize(1).build());
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            assertNotSame(first, second);
+            first.close();
+            assertTrue(first.isClosed());
+
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 1").close();
+        }
+
+        ConnectionPoolMetrics metrics = dataSource.getMetrics();
+        assertEquals(0, metrics.getStatementCacheHits());
+        assertEquals(4, metrics.getStatementCacheMisses());
+    }
+}
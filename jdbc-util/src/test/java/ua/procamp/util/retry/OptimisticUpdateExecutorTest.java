@@ -0,0 +1,233 @@
+package ua.procamp.util.retry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import ua.procamp.Program;
+import ua.procamp.locksexample.ProgramOptimisticUpdate;
+import ua.procamp.locksexample.ProgramVersionedBatchUpdate;
+import ua.procamp.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class OptimisticUpdateExecutorTest {
+    private static final String URL = "jdbc:h2:mem:optimistic_update_test_db;DB_CLOSE_DELAY=-1";
+    private static final RetryPolicy NO_BACKOFF_POLICY = RetryPolicy.builder()
+            .maxAttempts(3)
+            .initialBackoff(Duration.ZERO)
+            .build();
+
+    private DataSource dataSource;
+
+    @Before
+    public void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource(URL, "retry_user", "retry_pass");
+        executeSql("CREATE TABLE programs(id BIGINT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255), " +
+                "version INT NOT NULL)");
+        executeSql("INSERT INTO programs VALUES (1, 'initial', 'initial', 0)");
+    }
+
+    @After
+    public void destroy() throws SQLException {
+        executeSql("DROP TABLE programs");
+    }
+
+    private void executeSql(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private UnaryOperator<Program> rename(String name) {
+        return program -> program.toBuilder().name(name).build();
+    }
+
+    private UnaryOperator<Program> renameWithConcurrentUpdates(String name, int concurrentUpdates) {
+        AtomicInteger calls = new AtomicInteger();
+        return program -> {
+            if (calls.getAndIncrement() < concurrentUpdates) {
+                try {
+                    executeSql("UPDATE programs SET version = version + 1 WHERE id = " + program.getId());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return rename(name).apply(program);
+        };
+    }
+
+    private Program findProgram(long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new ProgramOptimisticUpdate(id).read(connection);
+        }
+    }
+
+    @Test
+    public void testUpdateWithoutConflict() throws SQLException {
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+
+        Program updated = executor.execute(new ProgramOptimisticUpdate(1L), rename("updated"));
+
+        assertEquals("updated", updated.getName());
+        assertEquals(1, updated.getVersion());
+        assertEquals(updated, findProgram(1L));
+        OptimisticRetryMetrics metrics = executor.getMetrics();
+        assertEquals(1, metrics.getUpdated());
+        assertEquals(0, metrics.getConflicts());
+    }
+
+    @Test
+    public void testConflictIsRetriedWithFreshState() throws SQLException {
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+
+        Program updated = executor.execute(new ProgramOptimisticUpdate(1L), renameWithConcurrentUpdates("updated", 2));
+
+        assertEquals("updated", updated.getName());
+        assertEquals(3, updated.getVersion());
+        assertEquals(updated, findProgram(1L));
+        OptimisticRetryMetrics metrics = executor.getMetrics();
+        assertEquals(2, metrics.getConflicts());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(1, metrics.getUpdated());
+    }
+
+    @Test
+    public void testRetriesAreLimited() throws SQLException {
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+
+        try {
+            executor.execute(new ProgramOptimisticUpdate(1L), renameWithConcurrentUpdates("updated", 3));
+            fail("Exception was't thrown");
+        } catch (RetryExhaustedException e) {
+            assertEquals("initial", findProgram(1L).getName());
+            OptimisticRetryMetrics metrics = executor.getMetrics();
+            assertEquals(3, metrics.getConflicts());
+            assertEquals(2, metrics.getRetries());
+            assertEquals(1, metrics.getExhausted());
+        }
+    }
+
+    @Test
+    public void testConflictingWriteDoesNotChangeUpdatedState() throws SQLException {
+        ProgramOptimisticUpdate update = new ProgramOptimisticUpdate(1L);
+        Program current = findProgram(1L);
+        Program updated = Program.builder().name("updated").description("updated").version(-1).build();
+        executeSql("UPDATE programs SET version = version + 1 WHERE id = 1");
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(update.write(connection, current, updated));
+        }
+
+        assertNull(updated.getId());
+        assertEquals(-1, updated.getVersion());
+        assertEquals("initial", findProgram(1L).getName());
+    }
+
+    @Test
+    public void testMissingRowIsNotUpdated() {
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+
+        Program updated = executor.execute(new ProgramOptimisticUpdate(-1L), rename("updated"));
+
+        assertNull(updated);
+        assertEquals(0, executor.getMetrics().getUpdated());
+    }
+
+    @Test
+    public void testSqlExceptionIsNotRetried() {
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+
+        try {
+            executor.execute(new ProgramOptimisticUpdate(1L), rename(new String(new char[256])));
+            fail("Exception was't thrown");
+        } catch (OptimisticUpdateException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+            assertEquals(0, executor.getMetrics().getRetries());
+        }
+    }
+
+    private List<Program> renamePrograms(String name, long... ids) throws SQLException {
+        List<Program> programs = new ArrayList<>();
+        for (long id : ids) {
+            programs.add(findProgram(id).toBuilder().name(name).build());
+        }
+        return programs;
+    }
+
+    @Test
+    public void testBatchCommitsRowsWithoutConflicts() throws SQLException {
+        executeSql("INSERT INTO programs VALUES (2, 'initial', 'initial', 0), (3, 'initial', 'initial', 0)");
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+        List<Program> programs = renamePrograms("updated", 1, 2, 3);
+        executeSql("UPDATE programs SET version = version + 1 WHERE id = 2");
+
+        OptimisticBatchResult<Program> result =
+                executor.executeBatch(new ProgramVersionedBatchUpdate(), programs, BatchCommitMode.PARTIAL);
+
+        assertEquals(List.of(programs.get(0), programs.get(2)), result.getUpdated());
+        assertEquals(List.of(programs.get(1)), result.getConflicted());
+        assertTrue(result.getRolledBack().isEmpty());
+        assertEquals(programs.get(0), findProgram(1L));
+        assertEquals(programs.get(2), findProgram(3L));
+        assertEquals("initial", findProgram(2L).getName());
+        assertEquals(1, programs.get(0).getVersion());
+        assertEquals(0, programs.get(1).getVersion());
+        OptimisticRetryMetrics metrics = executor.getMetrics();
+        assertEquals(2, metrics.getUpdated());
+        assertEquals(1, metrics.getConflicts());
+    }
+
+    @Test
+    public void testAllOrNothingBatchIsRolledBackOnConflict() throws SQLException {
+        executeSql("INSERT INTO programs VALUES (2, 'initial', 'initial', 0)");
+        OptimisticUpdateExecutor executor = new OptimisticUpdateExecutor(dataSource, NO_BACKOFF_POLICY);
+        List<Program> programs = renamePrograms("updated", 1, 2);
+        executeSql("UPDATE programs SET version = version + 1 WHERE id = 2");
+
+        OptimisticBatchResult<Program> result =
+                executor.executeBatch(new ProgramVersionedBatchUpdate(), programs, BatchCommitMode.ALL_OR_NOTHING);
+
+        assertTrue(result.getUpdated().isEmpty());
+        assertEquals(List.of(programs.get(1)), result.getConflicted());
+        assertEquals(List.of(programs.get(0)), result.getRolledBack());
+        assertEquals("initial", findProgram(1L).getName());
+        assertEquals(0, programs.get(0).getVersion());
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyUpToMax() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .initialBackoff(Duration.ofNanos(10))
+                .maxBackoff(Duration.ofNanos(50))
+                .jitter(false)
+                .build();
+
+        assertEquals(10, policy.getBackoffNanos(1));
+        assertEquals(20, policy.getBackoffNanos(2));
+        assertEquals(40, policy.getBackoffNanos(3));
+        assertEquals(50, policy.getBackoffNanos(4));
+    }
+
+    @Test
+    public void testJitteredBackoffDoesNotExceedExponentialValue() {
+        RetryPolicy policy = RetryPolicy.builder().initialBackoff(Duration.ofNanos(100)).build();
+
+        for (int i = 0; i < 100; i++) {
+            long backoff = policy.getBackoffNanos(2);
+            assertTrue(backoff >= 0 && backoff <= 200);
+        }
+    }
+}
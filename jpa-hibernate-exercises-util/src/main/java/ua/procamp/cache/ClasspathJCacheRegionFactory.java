@@ -0,0 +1,34 @@
+package ua.procamp.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * {@link ClasspathJCacheRegionFactory} is a {@link JCacheRegionFactory} that allows to set
+ * {@value ConfigSettings#CONFIG_URI} as a classpath resource (e.g. {@code account-ehcache.xml}), so the cache
+ * configuration can be shipped in the same jar as {@code persistence.xml}. Absolute URIs are used as is.
+ */
+public class ClasspathJCacheRegionFactory extends JCacheRegionFactory {
+    @Override
+    protected URI getUri(Map properties) {
+        URI uri = super.getUri(properties);
+        if (uri == null || uri.isAbsolute()) {
+            return uri;
+        }
+        URL resource = getClass().getClassLoader().getResource(uri.getPath());
+        if (resource == null) {
+            throw new CacheException("Cache configuration " + uri + " is not found on the classpath");
+        }
+        try {
+            return resource.toURI();
+        } catch (URISyntaxException e) {
+            throw new CacheException("Couldn't create URI from " + resource, e);
+        }
+    }
+}
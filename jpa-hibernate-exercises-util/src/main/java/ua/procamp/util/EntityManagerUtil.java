@@ -1,43 +1,24 @@
 package ua.procamp.util;
 
+import ua.procamp.util.tx.TransactionTemplate;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class EntityManagerUtil {
-    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
 
     public EntityManagerUtil(EntityManagerFactory entityManagerFactory) {
-        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
     }
 
     public void performWithinTx(Consumer<EntityManager> entityManagerConsumer) {
-        EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.getTransaction().begin();
-        try {
-            entityManagerConsumer.accept(entityManager);
-            entityManager.getTransaction().commit();
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
-            throw e;
-        } finally {
-            entityManager.close();
-        }
+        transactionTemplate.executeWithoutResult(entityManagerConsumer);
     }
 
     public <T> T performReturningWithinTx(Function<EntityManager, T> entityManagerFunction) {
-        EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.getTransaction().begin();
-        try {
-            T result = entityManagerFunction.apply(entityManager);
-            entityManager.getTransaction().commit();
-            return result;
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
-            throw e;
-        } finally {
-            entityManager.close();
-        }
+        return transactionTemplate.execute(entityManagerFunction);
     }
 }
@@ -10,11 +10,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class TestDataGenerator {
+    // Fairy loads its data files on creation, so it is too expensive to create it for every account
+    private static final ThreadLocal<Fairy> FAIRY = ThreadLocal.withInitial(Fairy::create);
 
     public static List<Account> generateAccountList(int size) {
         return Stream.generate(TestDataGenerator::generateAccount)
@@ -23,9 +25,8 @@ public class TestDataGenerator {
     }
 
     public static Account generateAccount() {
-        Fairy fairy = Fairy.create();
-        Person person = fairy.person();
-        Random random = new Random();
+        Person person = FAIRY.get().person();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
 
 
         Account fakeAccount = new Account();
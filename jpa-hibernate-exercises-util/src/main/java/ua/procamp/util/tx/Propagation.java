@@ -0,0 +1,17 @@
+package ua.procamp.util.tx;
+
+/**
+ * {@link Propagation} defines what {@link TransactionTemplate} does when a transaction of the same
+ * {@link javax.persistence.EntityManagerFactory} is already running on the current thread
+ */
+public enum Propagation {
+    /**
+     * Join the current transaction, or start a new one if there is none
+     */
+    REQUIRED,
+
+    /**
+     * Always start a new transaction with its own entity manager and connection, the current one is suspended
+     */
+    REQUIRES_NEW
+}
@@ -0,0 +1,21 @@
+package ua.procamp.util.tx;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ua.procamp.util.metrics.LatencySnapshot;
+
+/**
+ * {@link TransactionMetrics} is a snapshot of {@link TransactionTemplate} counters. {@link #getDurations()} tracks
+ * the time of transactions started by the template, from opening the entity manager to closing it.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TransactionMetrics {
+    private final long started;
+    private final long committed;
+    private final long rolledBack;
+    private final long joined;
+    private final LatencySnapshot durations;
+}
@@ -0,0 +1,50 @@
+package ua.procamp.util.tx;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.hibernate.FlushMode;
+
+import java.time.Duration;
+
+/**
+ * {@link TransactionOptions} holds settings of a single {@link TransactionTemplate} call.
+ * Use {@link TransactionOptions#defaultOptions()}, {@link TransactionOptions#readOnlyOptions()} or the builder
+ * to create an instance.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class TransactionOptions {
+    private static final TransactionOptions DEFAULT_OPTIONS = TransactionOptions.builder().build();
+    private static final TransactionOptions READ_ONLY_OPTIONS = TransactionOptions.builder().readOnly(true).build();
+
+    @Builder.Default
+    private Propagation propagation = Propagation.REQUIRED;
+
+    /**
+     * Loaded entities are read-only (no dirty checking snapshots), the session is never flushed and the JDBC
+     * connection is marked read-only for the time of the transaction
+     */
+    @Builder.Default
+    private boolean readOnly = false;
+
+    /**
+     * Flush mode of a new read-write session, {@code null} keeps the default one
+     */
+    private FlushMode flushMode;
+
+    /**
+     * Transaction timeout, each statement gets the rest of it as a JDBC query timeout. {@code null} means no timeout.
+     * Ignored when the call joins an existing transaction.
+     */
+    private Duration timeout;
+
+    public static TransactionOptions defaultOptions() {
+        return DEFAULT_OPTIONS;
+    }
+
+    public static TransactionOptions readOnlyOptions() {
+        return READ_ONLY_OPTIONS;
+    }
+}
@@ -0,0 +1,237 @@
+package ua.procamp.util.tx;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionBuilder;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import ua.procamp.util.metrics.LatencyHistogram;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.RollbackException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link TransactionTemplate} performs a function within a resource-local transaction: creates an
+ * {@link EntityManager}, begins a transaction, applies the function, commits the transaction (or rolls it back on
+ * exception) and closes the entity manager.
+ * <p>
+ * Transactions are bound to the current thread per {@link EntityManagerFactory}. With {@link Propagation#REQUIRED}
+ * a nested call joins the running transaction instead of starting a new one, so a business operation that calls
+ * several DAOs uses one entity manager, one connection and one transaction. An exception thrown by a joined call
+ * marks the whole transaction rollback-only, and the outermost call then fails with {@link RollbackException} even if
+ * the exception was caught.
+ */
+public class TransactionTemplate {
+    private static final Logger LOGGER = Logger.getLogger(TransactionTemplate.class.getName());
+    private static final ThreadLocal<Map<EntityManagerFactory, TransactionContext>> CURRENT_TRANSACTIONS =
+            ThreadLocal.withInitial(HashMap::new);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder committedCount = new LongAdder();
+    private final LongAdder rolledBackCount = new LongAdder();
+    private final LongAdder joinedCount = new LongAdder();
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    public TransactionTemplate(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public <T> T execute(Function<EntityManager, T> entityManagerFunction) {
+        return execute(TransactionOptions.defaultOptions(), entityManagerFunction);
+    }
+
+    public void executeWithoutResult(Consumer<EntityManager> entityManagerConsumer) {
+        executeWithoutResult(TransactionOptions.defaultOptions(), entityManagerConsumer);
+    }
+
+    public void executeWithoutResult(TransactionOptions options, Consumer<EntityManager> entityManagerConsumer) {
+        execute(options, entityManager -> {
+            entityManagerConsumer.accept(entityManager);
+            return null;
+        });
+    }
+
+    /**
+     * Performs the function according to the options. Exceptions thrown by the function or by commit are rethrown
+     * as is after the transaction is rolled back.
+     *
+     * @param options               propagation, read-only mode, flush mode and timeout of the call
+     * @param entityManagerFunction logic that receives entity manager and returns result
+     * @param <T>                   result type
+     * @return function result
+     */
+    public <T> T execute(TransactionOptions options, Function<EntityManager, T> entityManagerFunction) {
+        TransactionContext current = CURRENT_TRANSACTIONS.get().get(entityManagerFactory);
+        if (current != null && options.getPropagation() == Propagation.REQUIRED) {
+            return executeWithinCurrentTransaction(current, options, entityManagerFunction);
+        }
+        return executeWithinNewTransaction(options, entityManagerFunction);
+    }
+
+    /**
+     * Returns {@code true} if a transaction of the entity manager factory is running on the current thread
+     *
+     * @return whether a new call would join an existing transaction
+     */
+    public boolean isTransactionActive() {
+        return CURRENT_TRANSACTIONS.get().containsKey(entityManagerFactory);
+    }
+
+    private <T> T executeWithinCurrentTransaction(TransactionContext current, TransactionOptions options,
+                                                  Function<EntityManager, T> entityManagerFunction) {
+        if (current.readOnly && !options.isReadOnly()) {
+            throw new IllegalStateException("Read-write call cannot join a read-only transaction");
+        }
+        joinedCount.increment();
+        try {
+            return entityManagerFunction.apply(current.session);
+        } catch (RuntimeException | Error e) {
+            current.session.getTransaction().setRollbackOnly();
+            throw e;
+        }
+    }
+
+    private <T> T executeWithinNewTransaction(TransactionOptions options,
+                                              Function<EntityManager, T> entityManagerFunction) {
+        long start = System.nanoTime();
+        Session session = openSession(options);
+        TransactionContext suspended = bind(new TransactionContext(session, options.isReadOnly()));
+        Transaction transaction = session.getTransaction();
+        Throwable failure = null;
+        try {
+            if (options.getTimeout() != null) {
+                transaction.setTimeout(toSeconds(options));
+            }
+            transaction.begin();
+            startedCount.increment();
+            T result = entityManagerFunction.apply(session);
+            if (transaction.getRollbackOnly()) {
+                // Hibernate silently rolls back a rollback-only transaction on commit, the caller must know about it
+                throw new RollbackException("Transaction was marked rollback-only by a joined call");
+            }
+            transaction.commit();
+            committedCount.increment();
+            return result;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            rollback(transaction, e);
+            throw e;
+        } finally {
+            unbind(suspended);
+            durations.record(System.nanoTime() - start);
+            closeSession(session, options, failure);
+        }
+    }
+
+    private Session openSession(TransactionOptions options) {
+        SessionBuilder sessionBuilder = entityManagerFactory.unwrap(SessionFactory.class).withOptions();
+        if (options.isReadOnly()) {
+            // the connection is held until the session is closed, so read-only flag is reset on the same connection
+            sessionBuilder.connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_HOLD)
+                    .flushMode(FlushMode.MANUAL);
+        } else if (options.getFlushMode() != null) {
+            sessionBuilder.flushMode(options.getFlushMode());
+        }
+        Session session = sessionBuilder.openSession();
+        if (options.isReadOnly()) {
+            session.setDefaultReadOnly(true);
+            try {
+                session.doWork(connection -> connection.setReadOnly(true));
+            } catch (RuntimeException e) {
+                session.close();
+                throw e;
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Closes the session without hiding the outcome of the transaction: a failure to reset the read-only flag or to
+     * release the connection is added to the primary exception as suppressed, or logged if the transaction has
+     * already committed.
+     */
+    private void closeSession(Session session, TransactionOptions options, Throwable failure) {
+        if (options.isReadOnly()) {
+            try {
+                session.doWork(connection -> connection.setReadOnly(false));
+            } catch (RuntimeException e) {
+                onCloseFailure(failure, e, "Cannot reset read-only flag of the connection");
+            }
+        }
+        try {
+            session.close();
+        } catch (RuntimeException e) {
+            onCloseFailure(failure, e, "Cannot close the session");
+        }
+    }
+
+    private void onCloseFailure(Throwable failure, RuntimeException closeFailure, String message) {
+        if (failure != null) {
+            failure.addSuppressed(closeFailure);
+        } else {
+            LOGGER.log(Level.WARNING, message, closeFailure);
+        }
+    }
+
+    private void rollback(Transaction transaction, Throwable cause) {
+        rolledBackCount.increment();
+        try {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private TransactionContext bind(TransactionContext context) {
+        return CURRENT_TRANSACTIONS.get().put(entityManagerFactory, context);
+    }
+
+    private void unbind(TransactionContext suspended) {
+        Map<EntityManagerFactory, TransactionContext> currentTransactions = CURRENT_TRANSACTIONS.get();
+        if (suspended != null) {
+            currentTransactions.put(entityManagerFactory, suspended);
+        } else {
+            currentTransactions.remove(entityManagerFactory);
+            if (currentTransactions.isEmpty()) {
+                CURRENT_TRANSACTIONS.remove();
+            }
+        }
+    }
+
+    private static int toSeconds(TransactionOptions options) {
+        long millis = options.getTimeout().toMillis();
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * Returns a snapshot of current transaction counters
+     *
+     * @return transaction metrics
+     */
+    public TransactionMetrics getMetrics() {
+        return new TransactionMetrics(startedCount.sum(), committedCount.sum(), rolledBackCount.sum(),
+                joinedCount.sum(), durations.snapshot());
+    }
+
+    private static class TransactionContext {
+        private final Session session;
+        private final boolean readOnly;
+
+        private TransactionContext(Session session, boolean readOnly) {
+            this.session = session;
+            this.readOnly = readOnly;
+        }
+    }
+}
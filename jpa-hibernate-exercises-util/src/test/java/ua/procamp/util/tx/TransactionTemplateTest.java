@@ -0,0 +1,241 @@
+package ua.procamp.util.tx;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.procamp.model.Account;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import javax.persistence.RollbackException;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ua.procamp.util.TestDataGenerator.generateAccount;
+
+public class TransactionTemplateTest {
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("TransactionTemplateTest");
+        transactionTemplate = new TransactionTemplate(entityManagerFactory);
+    }
+
+    @AfterEach
+    public void destroy() {
+        entityManagerFactory.close();
+    }
+
+    private Account saveAccount() {
+        Account account = generateAccount();
+        transactionTemplate.executeWithoutResult(entityManager -> entityManager.persist(account));
+        return account;
+    }
+
+    private Account findAccount(long id) {
+        return transactionTemplate.execute(TransactionOptions.readOnlyOptions(),
+                entityManager -> entityManager.find(Account.class, id));
+    }
+
+    @Test
+    public void testCommit() {
+        Account account = saveAccount();
+
+        assertThat(findAccount(account.getId()), equalTo(account));
+        TransactionMetrics metrics = transactionTemplate.getMetrics();
+        assertThat(metrics.getStarted(), equalTo(2L));
+        assertThat(metrics.getCommitted(), equalTo(2L));
+        assertThat(metrics.getRolledBack(), equalTo(0L));
+        assertThat(metrics.getDurations().getCount(), equalTo(2L));
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+    }
+
+    @Test
+    public void testRollbackOnException() {
+        Account account = generateAccount();
+        IllegalStateException exception = new IllegalStateException("Failure");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> transactionTemplate.executeWithoutResult(entityManager -> {
+                    entityManager.persist(account);
+                    throw exception;
+                }));
+
+        assertThat(thrown, sameInstance(exception));
+        assertThat(findAccount(account.getId()), nullValue());
+        assertThat(transactionTemplate.getMetrics().getRolledBack(), equalTo(1L));
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+    }
+
+    @Test
+    public void testNestedCallJoinsTransaction() {
+        Account account = generateAccount();
+
+        transactionTemplate.executeWithoutResult(outer -> {
+            outer.persist(account);
+            transactionTemplate.executeWithoutResult(inner -> {
+                assertThat(inner, sameInstance(outer));
+                assertThat(inner.contains(account), is(true));
+            });
+            assertThat(transactionTemplate.isTransactionActive(), is(true));
+        });
+
+        assertThat(findAccount(account.getId()), equalTo(account));
+        TransactionMetrics metrics = transactionTemplate.getMetrics();
+        assertThat(metrics.getJoined(), equalTo(1L));
+        assertThat(metrics.getStarted(), equalTo(2L));
+    }
+
+    @Test
+    public void testExceptionInJoinedCallRollsBackWholeTransaction() {
+        Account account = generateAccount();
+
+        assertThrows(RollbackException.class, () -> transactionTemplate.executeWithoutResult(outer -> {
+            outer.persist(account);
+            try {
+                transactionTemplate.executeWithoutResult(inner -> {
+                    throw new IllegalStateException("Failure");
+                });
+            } catch (IllegalStateException ignored) {
+            }
+        }));
+
+        assertThat(findAccount(account.getId()), nullValue());
+        assertThat(transactionTemplate.getMetrics().getRolledBack(), equalTo(1L));
+    }
+
+    @Test
+    public void testRequiresNewSuspendsAndRestoresCurrentTransaction() {
+        TransactionOptions requiresNew = TransactionOptions.builder().propagation(Propagation.REQUIRES_NEW).build();
+        Account outerAccount = generateAccount();
+        Account innerAccount = generateAccount();
+        AtomicReference<EntityManager> innerEntityManager = new AtomicReference<>();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(outer -> {
+            outer.persist(outerAccount);
+            transactionTemplate.executeWithoutResult(requiresNew, inner -> {
+                innerEntityManager.set(inner);
+                assertThat(inner, not(sameInstance(outer)));
+                assertThat(inner.contains(outerAccount), is(false));
+                inner.persist(innerAccount);
+            });
+            transactionTemplate.executeWithoutResult(joined -> assertThat(joined, sameInstance(outer)));
+            throw new IllegalStateException("Failure");
+        }));
+
+        assertThat(innerEntityManager.get().isOpen(), is(false));
+        assertThat(findAccount(innerAccount.getId()), equalTo(innerAccount));
+        assertThat(findAccount(outerAccount.getId()), nullValue());
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+        TransactionMetrics metrics = transactionTemplate.getMetrics();
+        assertThat(metrics.getCommitted(), equalTo(3L));
+        assertThat(metrics.getRolledBack(), equalTo(1L));
+        assertThat(metrics.getJoined(), equalTo(1L));
+    }
+
+    @Test
+    public void testReadOnlyTransaction() {
+        Account account = saveAccount();
+        String email = account.getEmail();
+
+        transactionTemplate.executeWithoutResult(TransactionOptions.readOnlyOptions(), entityManager -> {
+            Session session = entityManager.unwrap(Session.class);
+            Account managedAccount = entityManager.find(Account.class, account.getId());
+            assertThat(session.isReadOnly(managedAccount), is(true));
+            assertThat(session.getHibernateFlushMode(), equalTo(FlushMode.MANUAL));
+            managedAccount.setEmail("changed." + email);
+        });
+
+        assertThat(findAccount(account.getId()).getEmail(), equalTo(email));
+    }
+
+    @Test
+    public void testReadWriteCallCannotJoinReadOnlyTransaction() {
+        assertThrows(IllegalStateException.class,
+                () -> transactionTemplate.executeWithoutResult(TransactionOptions.readOnlyOptions(),
+                        outer -> transactionTemplate.executeWithoutResult(inner -> {
+                        })));
+
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+    }
+
+    @Test
+    public void testReadOnlyResetFailureDoesNotHidePrimaryException() {
+        IllegalStateException exception = new IllegalStateException("Failure");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> transactionTemplate.executeWithoutResult(TransactionOptions.readOnlyOptions(), entityManager -> {
+                    entityManager.unwrap(Session.class).doWork(Connection::close);
+                    throw exception;
+                }));
+
+        assertThat(thrown, sameInstance(exception));
+        assertThat(thrown.getSuppressed(), not(emptyArray()));
+        assertThat(transactionTemplate.getMetrics().getDurations().getCount(), equalTo(1L));
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+    }
+
+    @Test
+    public void testFlushModeHint() {
+        Account account = saveAccount();
+        String email = account.getEmail();
+        TransactionOptions manualFlush = TransactionOptions.builder().flushMode(FlushMode.MANUAL).build();
+
+        transactionTemplate.executeWithoutResult(manualFlush, entityManager -> {
+            assertThat(entityManager.unwrap(Session.class).getHibernateFlushMode(), equalTo(FlushMode.MANUAL));
+            entityManager.find(Account.class, account.getId()).setEmail("changed." + email);
+        });
+        assertThat(findAccount(account.getId()).getEmail(), equalTo(email));
+
+        transactionTemplate.executeWithoutResult(entityManager -> {
+            assertThat(entityManager.unwrap(Session.class).getHibernateFlushMode(), equalTo(FlushMode.AUTO));
+            entityManager.find(Account.class, account.getId()).setEmail("changed." + email);
+        });
+        assertThat(findAccount(account.getId()).getEmail(), equalTo("changed." + email));
+    }
+
+    @Test
+    public void testTimeoutIsAppliedPerCall() {
+        TransactionOptions timeout = TransactionOptions.builder().timeout(Duration.ofMillis(1500)).build();
+
+        transactionTemplate.executeWithoutResult(timeout, entityManager ->
+                assertThat(entityManager.unwrap(Session.class).getTransaction().getTimeout(), equalTo(2)));
+        transactionTemplate.executeWithoutResult(entityManager ->
+                assertThat(entityManager.unwrap(Session.class).getTransaction().getTimeout(), equalTo(-1)));
+    }
+
+    @Test
+    public void testExpiredTimeoutFailsNextStatement() {
+        Account account = saveAccount();
+        TransactionOptions timeout = TransactionOptions.builder().timeout(Duration.ofSeconds(1)).build();
+
+        assertThrows(PersistenceException.class, () -> transactionTemplate.executeWithoutResult(timeout, entityManager -> {
+            sleep(Duration.ofMillis(1100));
+            entityManager.createQuery("select a from Account a where a.id = :id", Account.class)
+                    .setParameter("id", account.getId())
+                    .getSingleResult();
+        }));
+
+        assertThat(transactionTemplate.getMetrics().getRolledBack(), equalTo(1L));
+        assertThat(transactionTemplate.isTransactionActive(), is(false));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.ProductDao;
+import ua.procamp.dao.ProductDaoImpl;
+import ua.procamp.model.Product;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.PooledDataSource;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating and removing {@link #PRODUCTS} stored products with {@link ProductDao#updateAll} and
+ * {@link ProductDao#removeAll} (JDBC batches in one transaction) compared to the per-row {@link ProductDao#update}
+ * and {@link ProductDao#remove} loops (one auto-committed statement per product)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductDaoBulkModifyBenchmark {
+    private static final int PRODUCTS = 10_000;
+
+    private PooledDataSource dataSource;
+    private List<Product> products;
+
+    @State(Scope.Benchmark)
+    public static class BatchConfig {
+        @Param({"100", "1000"})
+        private int batchSize;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataSource = JdbcUtil.createDefaultPooledInMemoryH2DataSource();
+        ProductTable.create(dataSource);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncateTable() throws SQLException {
+        ProductTable.truncate(dataSource);
+    }
+
+    @Setup(Level.Invocation)
+    public void saveProducts() {
+        products = ProductTable.generateProducts(PRODUCTS);
+        new ProductDaoImpl(dataSource, 1000).saveAll(products);
+        products.forEach(product -> product.setPrice(product.getPrice().add(BigDecimal.ONE)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void updateOneByOne() {
+        ProductDao productDao = new ProductDaoImpl(dataSource);
+        products.forEach(productDao::update);
+    }
+
+    @Benchmark
+    public void updateAll(BatchConfig batchConfig) {
+        ProductDao productDao = new ProductDaoImpl(dataSource, batchConfig.batchSize);
+        productDao.updateAll(products);
+    }
+
+    @Benchmark
+    public void removeOneByOne() {
+        ProductDao productDao = new ProductDaoImpl(dataSource);
+        products.forEach(productDao::remove);
+    }
+
+    @Benchmark
+    public void removeAll(BatchConfig batchConfig) {
+        ProductDao productDao = new ProductDaoImpl(dataSource, batchConfig.batchSize);
+        productDao.removeAll(products);
+    }
+}
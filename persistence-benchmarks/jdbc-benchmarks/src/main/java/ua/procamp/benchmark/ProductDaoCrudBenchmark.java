@@ -0,0 +1,111 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.procamp.dao.ProductDao;
+import ua.procamp.dao.ProductDaoImpl;
+import ua.procamp.model.Product;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.PooledDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Single-row CRUD operations of {@link ProductDaoImpl} over a plain and a pooled H2 {@link DataSource}, and loading
+ * {@value #MULTI_GET_SIZE} products by ids one by one vs with a single multi-get
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductDaoCrudBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int MULTI_GET_SIZE = 100;
+
+    @Param({"simple", "pooled"})
+    private String dataSourceType;
+
+    private DataSource dataSource;
+    private ProductDao productDao;
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataSource = "pooled".equals(dataSourceType)
+                ? JdbcUtil.createDefaultPooledInMemoryH2DataSource()
+                : JdbcUtil.createDefaultInMemoryH2DataSource();
+        ProductTable.create(dataSource);
+        ProductTable.truncate(dataSource);
+        ProductTable.populate(dataSource, ROWS);
+        productDao = new ProductDaoImpl(dataSource);
+        products = productDao.findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource instanceof PooledDataSource) {
+            ((PooledDataSource) dataSource).close();
+        }
+    }
+
+    private Product randomProduct() {
+        return products.get(ThreadLocalRandom.current().nextInt(products.size()));
+    }
+
+    @Benchmark
+    public Product findOne() {
+        return productDao.findOne(randomProduct().getId());
+    }
+
+    private List<Long> randomProductIds() {
+        return ThreadLocalRandom.current().ints(MULTI_GET_SIZE, 0, products.size())
+                .mapToObj(i -> products.get(i).getId())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void findOneByOne(Blackhole blackhole) {
+        for (Long id : randomProductIds()) {
+            blackhole.consume(productDao.findOne(id));
+        }
+    }
+
+    @Benchmark
+    public List<Product> findAllById() {
+        return productDao.findAllById(randomProductIds());
+    }
+
+    @Benchmark
+    public void update() {
+        Product product = randomProduct();
+        product.setPrice(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(10, 10_000), 2));
+        productDao.update(product);
+    }
+
+    @Benchmark
+    public void saveAndRemove() {
+        Product product = ProductTable.generateProduct();
+        productDao.save(product);
+        productDao.remove(product);
+    }
+}
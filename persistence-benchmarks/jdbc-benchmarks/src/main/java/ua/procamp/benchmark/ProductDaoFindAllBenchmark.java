@@ -0,0 +1,83 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.procamp.dao.ProductDao;
+import ua.procamp.dao.ProductDaoImpl;
+import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.PooledDataSource;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reading the whole {@code products} table: materialized list, cursor-based stream and keyset pages
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ProductDaoFindAllBenchmark {
+    private static final int FETCH_SIZE = 1000;
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private PooledDataSource dataSource;
+    private ProductDao productDao;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataSource = JdbcUtil.createDefaultPooledInMemoryH2DataSource();
+        ProductTable.create(dataSource);
+        ProductTable.truncate(dataSource);
+        ProductTable.populate(dataSource, rows);
+        productDao = new ProductDaoImpl(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productDao.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        try (Stream<Product> products = productDao.streamAll(FETCH_SIZE)) {
+            products.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void findAllPages(Blackhole blackhole) {
+        ProductPage page = productDao.findPage(null, PAGE_SIZE);
+        blackhole.consume(page.getProducts());
+        while (page.hasNext()) {
+            page = productDao.findPage(page.getNextAfterId(), PAGE_SIZE);
+            blackhole.consume(page.getProducts());
+        }
+    }
+}
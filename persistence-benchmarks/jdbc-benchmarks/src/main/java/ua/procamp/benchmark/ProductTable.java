@@ -0,0 +1,75 @@
+package ua.procamp.benchmark;
+
+import ua.procamp.dao.ProductDao;
+import ua.procamp.dao.ProductDaoImpl;
+import ua.procamp.model.Product;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ProductTable} creates and fills {@code products} table for the benchmarks
+ */
+public class ProductTable {
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS products (" +
+            "  id            SERIAL NOT NULL," +
+            "  name     VARCHAR(255) NOT NULL," +
+            "  producer     VARCHAR(255) NOT NULL," +
+            "  price       DECIMAL(19, 4)," +
+            "  expiration_date      TIMESTAMP NOT NULL," +
+            "  creation_time TIMESTAMP NOT NULL DEFAULT now()," +
+            "  CONSTRAINT products_pk PRIMARY KEY (id)" +
+            ");" +
+            "CREATE INDEX IF NOT EXISTS products_creation_time_id_idx ON products (creation_time, id);";
+    private static final String TRUNCATE_TABLE_SQL = "TRUNCATE TABLE products";
+    private static final int POPULATE_CHUNK_SIZE = 10_000;
+
+    public static void create(DataSource dataSource) throws SQLException {
+        execute(dataSource, CREATE_TABLE_SQL);
+    }
+
+    public static void truncate(DataSource dataSource) throws SQLException {
+        execute(dataSource, TRUNCATE_TABLE_SQL);
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Inserts the given number of products in chunks, so the whole data set is never kept in memory
+     */
+    public static void populate(DataSource dataSource, int rows) {
+        ProductDao productDao = new ProductDaoImpl(dataSource, 1000);
+        for (int inserted = 0; inserted < rows; inserted += POPULATE_CHUNK_SIZE) {
+            productDao.saveAll(generateProducts(Math.min(POPULATE_CHUNK_SIZE, rows - inserted)));
+        }
+    }
+
+    public static List<Product> generateProducts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> generateProduct())
+                .collect(Collectors.toList());
+    }
+
+    public static Product generateProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Product.builder()
+                .name("Product " + random.nextInt(1_000_000))
+                .producer("Producer " + random.nextInt(1_000))
+                .price(BigDecimal.valueOf(random.nextInt(10, 10_000), 2))
+                .expirationDate(LocalDate.now().plusDays(random.nextInt(1, 1_000)))
+                .build();
+    }
+}
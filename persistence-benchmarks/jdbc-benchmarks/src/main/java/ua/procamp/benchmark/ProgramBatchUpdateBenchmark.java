@@ -0,0 +1,86 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.procamp.Program;
+import ua.procamp.locksexample.ProgramOptimisticUpdate;
+import ua.procamp.locksexample.ProgramVersionedBatchUpdate;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.PooledDataSource;
+import ua.procamp.util.retry.BatchCommitMode;
+import ua.procamp.util.retry.OptimisticBatchResult;
+import ua.procamp.util.retry.OptimisticUpdateExecutor;
+import ua.procamp.util.retry.RetryPolicy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optimistic update of many programs: one transaction per program vs one JDBC batch for all of them
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProgramBatchUpdateBenchmark {
+    @Param({"100", "1000"})
+    private int rows;
+
+    private PooledDataSource dataSource;
+    private OptimisticUpdateExecutor executor;
+    private List<Program> programs;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataSource = JdbcUtil.createDefaultPooledInMemoryH2DataSource();
+        ProgramTable.create(dataSource);
+        ProgramTable.truncate(dataSource);
+        ProgramTable.populate(dataSource, rows);
+        executor = new OptimisticUpdateExecutor(dataSource, RetryPolicy.defaultPolicy());
+        programs = new ArrayList<>(rows);
+        try (Connection connection = dataSource.getConnection()) {
+            for (long id = 1; id <= rows; id++) {
+                programs.add(new ProgramOptimisticUpdate(id).read(connection));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void updateOneByOne(Blackhole blackhole) {
+        String description = "Description " + iteration++;
+        for (Program program : programs) {
+            blackhole.consume(executor.execute(new ProgramOptimisticUpdate(program.getId()), current ->
+                    current.toBuilder().description(description).build()));
+        }
+    }
+
+    @Benchmark
+    public OptimisticBatchResult<Program> updateBatch() {
+        String description = "Description " + iteration++;
+        programs.forEach(program -> program.setDescription(description));
+        return executor.executeBatch(new ProgramVersionedBatchUpdate(), programs, BatchCommitMode.PARTIAL);
+    }
+}
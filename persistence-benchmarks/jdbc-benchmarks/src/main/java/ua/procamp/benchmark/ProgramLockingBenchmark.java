@@ -0,0 +1,194 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.Program;
+import ua.procamp.locksexample.ProgramOptimisticUpdate;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.ConnectionPoolConfig;
+import ua.procamp.util.pool.PooledDataSource;
+import ua.procamp.util.retry.OptimisticUpdate;
+import ua.procamp.util.retry.OptimisticUpdateExecutor;
+import ua.procamp.util.retry.RetryExhaustedException;
+import ua.procamp.util.retry.RetryPolicy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent updates of {@code programs} rows with optimistic (version column, retried by
+ * {@link OptimisticUpdateExecutor}) and pessimistic ({@code SELECT ... FOR UPDATE}) locking.
+ * <p>
+ * {@link #THREADS} updaters pick a row out of {@link #rows}: with probability {@link #hotSpotProbability} it is the
+ * single hot row, otherwise a uniformly random one. Throughput mode reports updates per second, sample time mode
+ * reports p50/p99 latency. {@link Counters} add per-iteration totals: conflict rate is {@code conflicts / updates}
+ * and mean lock wait is {@code lockWaitMicros / updates}, where lock wait is the time spent in the statement that
+ * waits for a row lock ({@code SELECT ... FOR UPDATE} or versioned {@code UPDATE}). Override the number of updaters
+ * with {@code -t}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(ProgramLockingBenchmark.THREADS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProgramLockingBenchmark {
+    static final int THREADS = 8;
+    private static final String URL = "jdbc:h2:mem:program_locking_db;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final String SELECT_WITH_LOCK_PROGRAM_SQL = "SELECT * FROM programs WHERE id = ? FOR UPDATE";
+    private static final String UPDATE_PROGRAM_PESSIMISTIC_SQL =
+            "UPDATE programs SET name = ?, description = ?, version = ? WHERE id = ?";
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy.builder().maxAttempts(20).build();
+
+    @Param({"16", "1024"})
+    private int rows;
+
+    @Param({"0.0", "0.9"})
+    private double hotSpotProbability;
+
+    private PooledDataSource dataSource;
+    private OptimisticUpdateExecutor optimisticUpdateExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataSource = JdbcUtil.createPooledInMemoryH2DataSource(URL, "locking_user", "locking_pass",
+                ConnectionPoolConfig.builder().minSize(THREADS).maxSize(THREADS * 2).build());
+        ProgramTable.create(dataSource);
+        ProgramTable.truncate(dataSource);
+        ProgramTable.populate(dataSource, rows);
+        optimisticUpdateExecutor = new OptimisticUpdateExecutor(dataSource, RETRY_POLICY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    private long nextProgramId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextDouble() < hotSpotProbability ? 1 : random.nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Program optimistic(Counters counters) {
+        CountingUpdate update = new CountingUpdate(new ProgramOptimisticUpdate(nextProgramId()), counters);
+        try {
+            Program program = optimisticUpdateExecutor.execute(update, current -> current.toBuilder()
+                    .description("Updated by " + Thread.currentThread().getName())
+                    .build());
+            counters.updates++;
+            return program;
+        } catch (RetryExhaustedException e) {
+            counters.failures++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Program pessimistic(Counters counters) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            Program program = selectForUpdate(connection, nextProgramId(), counters);
+            program.setDescription("Updated by " + Thread.currentThread().getName());
+            program.setVersion(program.getVersion() + 1);
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_PROGRAM_PESSIMISTIC_SQL)) {
+                statement.setString(1, program.getName());
+                statement.setString(2, program.getDescription());
+                statement.setInt(3, program.getVersion());
+                statement.setLong(4, program.getId());
+                statement.executeUpdate();
+            }
+            connection.commit();
+            counters.updates++;
+            return program;
+        }
+    }
+
+    private Program selectForUpdate(Connection connection, long programId, Counters counters) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_WITH_LOCK_PROGRAM_SQL)) {
+            statement.setLong(1, programId);
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            return Program.builder()
+                    .id(resultSet.getLong("id"))
+                    .name(resultSet.getString("name"))
+                    .description(resultSet.getString("description"))
+                    .version(resultSet.getInt("version"))
+                    .build();
+        } finally {
+            counters.lockWaitMicros += TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Per-thread totals of an iteration, JMH sums them over all threads
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long updates;
+        public long conflicts;
+        public long failures;
+        public long lockWaitMicros;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            updates = 0;
+            conflicts = 0;
+            failures = 0;
+            lockWaitMicros = 0;
+        }
+    }
+
+    /**
+     * Counts conflicts and times the versioned {@code UPDATE}, which waits for the row lock held by a concurrent
+     * writer until it commits
+     */
+    private static class CountingUpdate implements OptimisticUpdate<Program> {
+        private final OptimisticUpdate<Program> target;
+        private final Counters counters;
+
+        private CountingUpdate(OptimisticUpdate<Program> target, Counters counters) {
+            this.target = target;
+            this.counters = counters;
+        }
+
+        @Override
+        public Program read(Connection connection) throws SQLException {
+            return target.read(connection);
+        }
+
+        @Override
+        public boolean write(Connection connection, Program current, Program updated) throws SQLException {
+            long start = System.nanoTime();
+            try {
+                boolean written = target.write(connection, current, updated);
+                if (!written) {
+                    counters.conflicts++;
+                }
+                return written;
+            } finally {
+                counters.lockWaitMicros += TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ua.procamp.benchmark;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link ProgramTable} creates and fills versioned {@code programs} table for the locking benchmarks
+ */
+public class ProgramTable {
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS programs (" +
+            "  id          BIGINT NOT NULL," +
+            "  name        VARCHAR(255) NOT NULL," +
+            "  description VARCHAR(255)," +
+            "  version     INT NOT NULL DEFAULT 0," +
+            "  CONSTRAINT programs_pk PRIMARY KEY (id)" +
+            ")";
+    private static final String TRUNCATE_TABLE_SQL = "TRUNCATE TABLE programs";
+    private static final String INSERT_PROGRAM_SQL = "INSERT INTO programs(id, name, description) VALUES (?, ?, ?)";
+
+    public static void create(DataSource dataSource) throws SQLException {
+        execute(dataSource, CREATE_TABLE_SQL);
+    }
+
+    public static void truncate(DataSource dataSource) throws SQLException {
+        execute(dataSource, TRUNCATE_TABLE_SQL);
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Inserts programs with ids from {@code 1} to {@code rows} in one batch
+     */
+    public static void populate(DataSource dataSource, int rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_PROGRAM_SQL)) {
+            for (long id = 1; id <= rows; id++) {
+                statement.setLong(1, id);
+                statement.setString(2, "Program " + id);
+                statement.setString(3, "Description " + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ua.procamp.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.procamp.benchmark.ProductTable;
+import ua.procamp.model.Product;
+import ua.procamp.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second mapped by {@link ProductRowMapper} compared to the label-based builder mapping it replaced, and to
+ * the same index-based mapping that reads dates with {@link ResultSet#getDate(int)} and
+ * {@link ResultSet#getTimestamp(int)} instead of {@code getObject(index, LocalDate.class)} (JDBC 4.2). It lives in {@code ua.procamp.dao} package to access the package-private mapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductRowMappingBenchmark {
+    private static final int ROWS = 10_000;
+    private static final String SELECT_SQL = "SELECT * FROM products";
+
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        DataSource dataSource = JdbcUtil.createDefaultInMemoryH2DataSource();
+        ProductTable.create(dataSource);
+        ProductTable.truncate(dataSource);
+        ProductTable.populate(dataSource, ROWS);
+        connection = dataSource.getConnection();
+        statement = connection.prepareStatement(SELECT_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void labelBasedBuilderMapping(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(Product.builder()
+                        .id(resultSet.getLong("id"))
+                        .name(resultSet.getString("name"))
+                        .producer(resultSet.getString("producer"))
+                        .price(resultSet.getBigDecimal("price"))
+                        .expirationDate(resultSet.getDate("expiration_date").toLocalDate())
+                        .creationTime(resultSet.getTimestamp("creation_time").toLocalDateTime())
+                        .build());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void indexBasedRowMapper(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ProductRowMapper rowMapper = ProductRowMapper.forResultSet(resultSet);
+            while (resultSet.next()) {
+                blackhole.consume(rowMapper.mapRow(resultSet));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void indexBasedSqlTypesMapping(Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(new Product(
+                        resultSet.getLong(1),
+                        resultSet.getString(2),
+                        resultSet.getString(3),
+                        resultSet.getBigDecimal(4),
+                        resultSet.getDate(5).toLocalDate(),
+                        resultSet.getTimestamp(6).toLocalDateTime()));
+            }
+        }
+    }
+}
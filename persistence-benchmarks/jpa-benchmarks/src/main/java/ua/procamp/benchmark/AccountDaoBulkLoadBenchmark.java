@@ -0,0 +1,78 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.AccountDao;
+import ua.procamp.dao.AccountDaoImpl;
+import ua.procamp.model.Account;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loading {@link #ACCOUNTS} new accounts through {@link AccountDao}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountDaoBulkLoadBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    /**
+     * Identity ids ({@link PersistenceUnits#ACCOUNTS}) vs pooled sequence ids ({@link PersistenceUnits#BULK_ACCOUNTS})
+     */
+    @Param({PersistenceUnits.ACCOUNTS, PersistenceUnits.BULK_ACCOUNTS})
+    private String persistenceUnit;
+
+    private EntityManagerFactory emf;
+    private AccountDao accountDao;
+    private List<Account> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(persistenceUnit);
+        accountDao = new AccountDaoImpl(emf);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncateTable() {
+        AccountTable.truncate(emf);
+    }
+
+    @Setup(Level.Invocation)
+    public void generateAccounts() {
+        accounts = Stream.generate(AccountTable::generateAccount).limit(ACCOUNTS).collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void saveOneByOne() {
+        accounts.forEach(accountDao::save);
+    }
+
+    @Benchmark
+    public void saveAll() {
+        accountDao.saveAll(accounts);
+    }
+}
@@ -0,0 +1,87 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.AccountDao;
+import ua.procamp.dao.AccountDaoImpl;
+import ua.procamp.model.Account;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-row CRUD operations of {@link AccountDaoImpl} with and without the second-level cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountDaoCrudBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private EntityManagerFactory emf;
+    private AccountDao accountDao;
+    private List<Account> accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.ACCOUNTS,
+                Map.of("javax.persistence.sharedCache.mode", secondLevelCache ? "ENABLE_SELECTIVE" : "NONE"));
+        AccountTable.populate(emf, ROWS);
+        accountDao = new AccountDaoImpl(emf);
+        accounts = accountDao.findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    @Benchmark
+    public Account findById() {
+        return accountDao.findById(randomAccount().getId());
+    }
+
+    @Benchmark
+    public Account findByEmail() {
+        return accountDao.findByEmail(randomAccount().getEmail());
+    }
+
+    @Benchmark
+    public void update() {
+        Account account = randomAccount();
+        account.setBalance(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(200_000), 2));
+        accountDao.update(account);
+    }
+
+    @Benchmark
+    public void saveAndRemove() {
+        Account account = AccountTable.generateAccount();
+        accountDao.save(account);
+        accountDao.remove(account);
+    }
+}
@@ -0,0 +1,96 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.procamp.dao.AccountDao;
+import ua.procamp.dao.AccountDaoImpl;
+import ua.procamp.model.Account;
+import ua.procamp.model.AccountBalance;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading the whole {@code account} table with {@link AccountDao#findAll()}, streaming it and loading
+ * {@link AccountBalance} projections. {@link #findAllReadWrite()} is a baseline that loads the same entities in
+ * a regular read-write persistence context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class AccountDaoFindAllBenchmark {
+    private static final int FETCH_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private EntityManagerFactory emf;
+    private AccountDao accountDao;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.ACCOUNTS);
+        AccountTable.populate(emf, rows);
+        accountDao = new AccountDaoImpl(emf);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Account> findAll() {
+        return accountDao.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        try (Stream<Account> accounts = accountDao.streamAll(FETCH_SIZE)) {
+            accounts.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<AccountBalance> findAllBalances() {
+        return accountDao.findAllBalances();
+    }
+
+    @Benchmark
+    public void streamAllBalances(Blackhole blackhole) {
+        try (Stream<AccountBalance> balances = accountDao.streamAllBalances(FETCH_SIZE)) {
+            balances.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public List<Account> findAllReadWrite() {
+        EntityManager entityManager = emf.createEntityManager();
+        entityManager.getTransaction().begin();
+        try {
+            List<Account> accounts = entityManager.createQuery("from Account", Account.class).getResultList();
+            entityManager.getTransaction().commit();
+            return accounts;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ua.procamp.benchmark;
+
+import org.hibernate.Session;
+import ua.procamp.model.Account;
+import ua.procamp.model.Gender;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AccountTable} fills {@code account} table for the benchmarks. Test data is generated without jfairy
+ * ({@link ua.procamp.util.TestDataGenerator}) since it is too slow to generate millions of rows.
+ */
+public class AccountTable {
+    private static final String INSERT_SQL = "INSERT INTO account(first_name, last_name, email, birthday, gender, " +
+            "creation_time, balance) VALUES (?,?,?,?,?,?,?)";
+    private static final int BATCH_SIZE = 1000;
+    private static final AtomicLong EMAIL_SEQUENCE = new AtomicLong();
+
+    public static void populate(EntityManagerFactory emf, int rows) {
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                connection.setAutoCommit(false);
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                    for (int i = 1; i <= rows; i++) {
+                        Account account = generateAccount();
+                        statement.setString(1, account.getFirstName());
+                        statement.setString(2, account.getLastName());
+                        statement.setString(3, account.getEmail());
+                        statement.setDate(4, Date.valueOf(account.getBirthday()));
+                        statement.setString(5, account.getGender().name());
+                        statement.setTimestamp(6, Timestamp.valueOf(account.getCreationTime()));
+                        statement.setBigDecimal(7, account.getBalance());
+                        statement.addBatch();
+                        if (i % BATCH_SIZE == 0 || i == rows) {
+                            statement.executeBatch();
+                        }
+                    }
+                }
+                connection.commit();
+            });
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public static void truncate(EntityManagerFactory emf) {
+        EntityManager entityManager = emf.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.createNativeQuery("TRUNCATE TABLE account").executeUpdate();
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public static Account generateAccount() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Account account = new Account();
+        account.setFirstName("First" + random.nextInt(10_000));
+        account.setLastName("Last" + random.nextInt(10_000));
+        account.setEmail("account" + EMAIL_SEQUENCE.incrementAndGet() + "@example.com");
+        account.setBirthday(LocalDate.of(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        account.setGender(random.nextBoolean() ? Gender.MALE : Gender.FEMALE);
+        account.setCreationTime(LocalDateTime.now());
+        account.setBalance(BigDecimal.valueOf(random.nextInt(200_000), 2));
+        return account;
+    }
+}
@@ -0,0 +1,97 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.AuthorBookDao;
+import ua.procamp.dao.AuthorBookDaoImpl;
+import ua.procamp.model.Author;
+import ua.procamp.model.Book;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Links one author to {@link #books} books and unlinks them again, through {@link Author#addBook(Book)} on managed
+ * entities and through {@link AuthorBookDao}, which writes {@code author_book} rows in JDBC batches
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthorBookDaoBenchmark {
+    @Param({"1000"})
+    private int books;
+
+    private EntityManagerFactory emf;
+    private EntityManagerUtil emUtil;
+    private AuthorBookDao authorBookDao;
+    private Long authorId;
+    private List<Long> bookIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.BOOK_AUTHORS);
+        emUtil = new EntityManagerUtil(emf);
+        Author author = new Author();
+        author.setFirstName("John");
+        author.setLastName("Doe");
+        List<Book> bookList = IntStream.range(0, books)
+                .mapToObj(AuthorBookDaoBenchmark::createBook)
+                .collect(Collectors.toList());
+        emUtil.performWithinTx(entityManager -> {
+            entityManager.persist(author);
+            bookList.forEach(entityManager::persist);
+        });
+        authorId = author.getId();
+        bookIds = bookList.stream().map(Book::getId).collect(Collectors.toList());
+        authorBookDao = new AuthorBookDaoImpl(emf);
+    }
+
+    private static Book createBook(int i) {
+        Book book = new Book();
+        book.setName("Book " + i);
+        book.setIsbn("isbn-" + i);
+        return book;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void linkAndUnlinkEntities() {
+        emUtil.performWithinTx(entityManager -> {
+            Author author = entityManager.find(Author.class, authorId);
+            bookIds.forEach(bookId -> author.addBook(entityManager.getReference(Book.class, bookId)));
+        });
+        emUtil.performWithinTx(entityManager -> {
+            Author author = entityManager.find(Author.class, authorId);
+            List.copyOf(author.getBooks()).forEach(author::removeBook);
+        });
+    }
+
+    @Benchmark
+    public int linkAndUnlinkWithDao() {
+        Map<Long, List<Long>> links = Map.of(authorId, bookIds);
+        return authorBookDao.linkAll(links) + authorBookDao.unlinkAll(links);
+    }
+}
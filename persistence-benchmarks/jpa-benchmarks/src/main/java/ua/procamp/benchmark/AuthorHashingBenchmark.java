@@ -0,0 +1,93 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.model.Author;
+import ua.procamp.model.Book;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory {@link Author#addBook(Book)} over {@link #books} books. Each call adds the author to
+ * {@link Book#getAuthors()}, so {@link #addBooksToAuthor()} measures {@link Author} hashing when one book has a single
+ * author, and {@link #addAuthorsToBook()} when one book has {@link #books} authors. {@link Hashing#CONSTANT} restores
+ * the former {@code hashCode()} that returned 31 and turned {@link Book#getAuthors()} into a linear list.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class AuthorHashingBenchmark {
+    @Param({"10000"})
+    private int books;
+
+    @Param({"CONSTANT", "UUID"})
+    private Hashing hashing;
+
+    private List<Book> bookList;
+    private List<Author> authorList;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        bookList = IntStream.range(0, books)
+                .mapToObj(AuthorHashingBenchmark::createBook)
+                .collect(Collectors.toList());
+        authorList = IntStream.range(0, books)
+                .mapToObj(i -> createAuthor())
+                .collect(Collectors.toList());
+    }
+
+    private static Book createBook(int i) {
+        Book book = new Book();
+        book.setName("Book " + i);
+        book.setIsbn("isbn-" + i);
+        return book;
+    }
+
+    private Author createAuthor() {
+        Author author = hashing == Hashing.CONSTANT ? new ConstantHashAuthor() : new Author();
+        author.setFirstName("John");
+        author.setLastName("Doe");
+        return author;
+    }
+
+    @Benchmark
+    public Author addBooksToAuthor() {
+        Author author = authorList.get(0);
+        bookList.forEach(author::addBook);
+        return author;
+    }
+
+    @Benchmark
+    public Book addAuthorsToBook() {
+        Book book = bookList.get(0);
+        authorList.forEach(author -> author.addBook(book));
+        return book;
+    }
+
+    public enum Hashing {
+        CONSTANT, UUID
+    }
+
+    private static class ConstantHashAuthor extends Author {
+        @Override
+        public int hashCode() {
+            return 31;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.BookDao;
+import ua.procamp.dao.BookDaoImpl;
+import ua.procamp.model.Book;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ISBN resolution of {@link #LOOKUP_SIZE} random books out of {@link #BOOKS}. {@link #findAllByIsbn()} is served by
+ * the natural-id cache after the first iterations, {@link #findByIsbnQueryOneByOne()} is the ad-hoc query baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookDaoBenchmark {
+    private static final int BOOKS = 10_000;
+    private static final int LOOKUP_SIZE = 100;
+
+    private EntityManagerFactory emf;
+    private EntityManagerUtil emUtil;
+    private BookDao bookDao;
+    private List<String> isbns;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.BOOK_AUTHORS);
+        emUtil = new EntityManagerUtil(emf);
+        List<Book> books = IntStream.range(0, BOOKS)
+                .mapToObj(BookDaoBenchmark::createBook)
+                .collect(Collectors.toList());
+        emUtil.performWithinTx(entityManager -> books.forEach(entityManager::persist));
+        isbns = books.stream().map(Book::getIsbn).collect(Collectors.toList());
+        bookDao = new BookDaoImpl(emf);
+    }
+
+    private static Book createBook(int i) {
+        Book book = new Book();
+        book.setName("Book " + i);
+        book.setIsbn(String.format("978-%09d", i));
+        return book;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    private List<String> randomIsbns() {
+        int from = ThreadLocalRandom.current().nextInt(isbns.size() - LOOKUP_SIZE);
+        return isbns.subList(from, from + LOOKUP_SIZE);
+    }
+
+    @Benchmark
+    public Book findByIsbn() {
+        return bookDao.findByIsbn(isbns.get(ThreadLocalRandom.current().nextInt(isbns.size())));
+    }
+
+    @Benchmark
+    public List<Book> findAllByIsbn() {
+        return bookDao.findAllByIsbn(randomIsbns());
+    }
+
+    @Benchmark
+    public List<Book> findByIsbnQueryOneByOne() {
+        List<String> lookupIsbns = randomIsbns();
+        return emUtil.performReturningWithinTx(entityManager -> lookupIsbns.stream()
+                .map(isbn -> entityManager.createQuery("SELECT b FROM Book b WHERE b.isbn = :isbn", Book.class)
+                        .setParameter("isbn", isbn)
+                        .getSingleResult())
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,105 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.CompanyDao;
+import ua.procamp.dao.CompanyDaoImpl;
+import ua.procamp.dao.CompanyFetchPlan;
+import ua.procamp.model.Company;
+import ua.procamp.model.Product;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link CompanyDaoImpl} lookups over {@link #COMPANIES} companies with {@link #PRODUCTS_PER_COMPANY} products each
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompanyDaoBenchmark {
+    private static final int COMPANIES = 1_000;
+    private static final int PRODUCTS_PER_COMPANY = 20;
+    private static final int MULTI_GET_SIZE = 50;
+
+    private EntityManagerFactory emf;
+    private CompanyDao companyDao;
+    private List<Long> companyIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.COMPANY_PRODUCTS);
+        List<Company> companies = IntStream.range(0, COMPANIES)
+                .mapToObj(i -> createCompany("Company " + i))
+                .collect(Collectors.toList());
+        new EntityManagerUtil(emf).performWithinTx(entityManager -> companies.forEach(company -> {
+            entityManager.persist(company);
+            company.getProducts().forEach(entityManager::persist);
+        }));
+        companyIds = companies.stream().map(Company::getId).collect(Collectors.toList());
+        companyDao = new CompanyDaoImpl(emf);
+    }
+
+    private static Company createCompany(String name) {
+        Company company = new Company();
+        company.setName(name);
+        for (int i = 0; i < PRODUCTS_PER_COMPANY; i++) {
+            Product product = new Product();
+            product.setName(name + " product " + i);
+            company.addProduct(product);
+        }
+        return company;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public Company findByIdFetchProducts() {
+        Long id = companyIds.get(ThreadLocalRandom.current().nextInt(companyIds.size()));
+        return companyDao.findByIdFetchProducts(id);
+    }
+
+    @Benchmark
+    public Company findCompanyOnly() {
+        Long id = companyIds.get(ThreadLocalRandom.current().nextInt(companyIds.size()));
+        return companyDao.findById(id, CompanyFetchPlan.COMPANY_ONLY);
+    }
+
+    private List<Long> randomCompanyIds() {
+        int from = ThreadLocalRandom.current().nextInt(companyIds.size() - MULTI_GET_SIZE);
+        return companyIds.subList(from, from + MULTI_GET_SIZE);
+    }
+
+    @Benchmark
+    public List<Company> findByIdFetchProductsOneByOne() {
+        return randomCompanyIds().stream()
+                .map(companyDao::findByIdFetchProducts)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Company> findAllByIdFetchProducts() {
+        return companyDao.findAllByIdFetchProducts(randomCompanyIds());
+    }
+}
@@ -0,0 +1,32 @@
+package ua.procamp.benchmark;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PersistenceUnits} creates {@link EntityManagerFactory} instances from the H2 persistence units of DAO modules
+ * with SQL logging and statistics turned off, so they do not distort the results.
+ */
+public class PersistenceUnits {
+    public static final String ACCOUNTS = "SingleAccountEntityH2";
+    public static final String BULK_ACCOUNTS = "BulkAccountEntityH2";
+    public static final String PHOTO_COMMENTS = "PhotoComments";
+    public static final String COMPANY_PRODUCTS = "CompanyProducts";
+    public static final String BOOK_AUTHORS = "BookAuthors";
+    public static final List<String> ALL = List.of(ACCOUNTS, BULK_ACCOUNTS, PHOTO_COMMENTS, COMPANY_PRODUCTS, BOOK_AUTHORS);
+
+    public static EntityManagerFactory create(String persistenceUnitName) {
+        return create(persistenceUnitName, Map.of());
+    }
+
+    public static EntityManagerFactory create(String persistenceUnitName, Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>(overrides);
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.format_sql", "false");
+        properties.put("hibernate.generate_statistics", "false");
+        return Persistence.createEntityManagerFactory(persistenceUnitName, properties);
+    }
+}
@@ -0,0 +1,19 @@
+package ua.procamp.benchmark;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * {@link PersistenceUnitsSmokeCheck} creates every benchmark persistence unit from the shaded {@code benchmarks.jar}.
+ * The jar merges the persistence.xml files of all DAO modules into one root, so a unit that scans unlisted classes
+ * sees entities (and cache regions) of other modules. Module tests cannot catch that, this check runs on
+ * {@code package} right after the jar is built and fails the build if any unit cannot be created.
+ */
+public class PersistenceUnitsSmokeCheck {
+    public static void main(String[] args) {
+        for (String persistenceUnitName : PersistenceUnits.ALL) {
+            EntityManagerFactory emf = PersistenceUnits.create(persistenceUnitName);
+            emf.close();
+            System.out.println("Persistence unit " + persistenceUnitName + " is OK");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ua.procamp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ua.procamp.dao.PhotoDao;
+import ua.procamp.dao.PhotoDaoImpl;
+import ua.procamp.model.Photo;
+import ua.procamp.model.PhotoComment;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
+import ua.procamp.util.EntityManagerUtil;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link PhotoDaoImpl} operations over {@link #PHOTOS} photos with {@link #COMMENTS_PER_PHOTO} comments each
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PhotoDaoBenchmark {
+    private static final int PHOTOS = 1_000;
+    private static final int COMMENTS_PER_PHOTO = 10;
+    private static final int GALLERY_SIZE = 50;
+    private static final int BULK_COMMENTS = 1_000;
+    private static final int LATEST_COMMENTS = 5;
+
+    private EntityManagerFactory emf;
+    private EntityManagerUtil emUtil;
+    private PhotoDao photoDao;
+    private List<Long> photoIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = PersistenceUnits.create(PersistenceUnits.PHOTO_COMMENTS);
+        List<Photo> photos = IntStream.range(0, PHOTOS)
+                .mapToObj(i -> createPhoto())
+                .collect(Collectors.toList());
+        emUtil = new EntityManagerUtil(emf);
+        emUtil.performWithinTx(entityManager -> photos.forEach(entityManager::persist));
+        photoIds = photos.stream().map(Photo::getId).collect(Collectors.toList());
+        photoDao = new PhotoDaoImpl(emf);
+    }
+
+    private static Photo createPhoto() {
+        Photo photo = new Photo();
+        photo.setUrl("https://photos.example.com/" + UUID.randomUUID());
+        photo.setDescription("Benchmark photo");
+        for (int i = 0; i < COMMENTS_PER_PHOTO; i++) {
+            PhotoComment comment = new PhotoComment();
+            comment.setText("Comment " + i);
+            comment.setCreatedOn(LocalDateTime.now());
+            photo.addComment(comment);
+        }
+        return photo;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    private long randomPhotoId() {
+        return photoIds.get(ThreadLocalRandom.current().nextInt(photoIds.size()));
+    }
+
+    @Benchmark
+    public Photo findById() {
+        return photoDao.findById(randomPhotoId());
+    }
+
+    @Benchmark
+    public PhotoWithLatestComments findByIdWithLatestComments() {
+        return photoDao.findByIdWithLatestComments(randomPhotoId(), LATEST_COMMENTS);
+    }
+
+    private List<Long> randomGalleryIds() {
+        int from = ThreadLocalRandom.current().nextInt(photoIds.size() - GALLERY_SIZE);
+        return photoIds.subList(from, from + GALLERY_SIZE);
+    }
+
+    /**
+     * Baseline of {@link #findGalleryById()}: each photo and its comments are loaded by separate queries
+     */
+    @Benchmark
+    public List<Photo> findGalleryOneByOne() {
+        List<Long> ids = randomGalleryIds();
+        return emUtil.performReturningWithinTx(entityManager -> ids.stream()
+                .map(id -> entityManager.find(Photo.class, id))
+                .peek(photo -> photo.getComments().size())
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<Photo> findGalleryById() {
+        return photoDao.findAllById(randomGalleryIds());
+    }
+
+    @Benchmark
+    public List<Photo> findAll() {
+        return photoDao.findAll();
+    }
+
+    @Benchmark
+    public List<PhotoSummary> findAllSummaries() {
+        return photoDao.findAllSummaries();
+    }
+
+    @Benchmark
+    public void addComment() {
+        photoDao.addComment(randomPhotoId(), "Nice picture!");
+    }
+
+    /**
+     * Compare with {@link #BULK_COMMENTS} times {@link #addComment()}
+     */
+    @Benchmark
+    @OperationsPerInvocation(BULK_COMMENTS)
+    public void addComments() {
+        List<String> comments = IntStream.range(0, BULK_COMMENTS)
+                .mapToObj(i -> "Nice picture #" + i)
+                .collect(Collectors.toList());
+        photoDao.addComments(randomPhotoId(), comments);
+    }
+
+    @Benchmark
+    public void saveAndRemove() {
+        Photo photo = createPhoto();
+        photoDao.save(photo);
+        photoDao.remove(photo);
+    }
+}
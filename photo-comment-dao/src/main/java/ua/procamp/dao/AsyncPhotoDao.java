@@ -0,0 +1,42 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Photo;
+import ua.procamp.model.PhotoCommentPage;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncPhotoDao} is a non-blocking variant of {@link PhotoDao}. Each method performs the same operation
+ * as its {@link PhotoDao} counterpart on an executor and returns a future of its result.
+ */
+public interface AsyncPhotoDao {
+    CompletableFuture<Void> save(Photo photo);
+
+    CompletableFuture<Photo> findById(long id);
+
+    CompletableFuture<List<Photo>> findAllById(List<Long> ids);
+
+    CompletableFuture<PhotoWithLatestComments> findByIdWithLatestComments(long id, int limit);
+
+    CompletableFuture<PhotoCommentPage> findComments(long photoId, LocalDateTime beforeCreatedOn, Long beforeId,
+                                                     int limit);
+
+    CompletableFuture<List<Photo>> findAll();
+
+    CompletableFuture<List<PhotoSummary>> findAllSummaries();
+
+    CompletableFuture<Void> remove(Photo photo);
+
+    CompletableFuture<Void> addComment(long photoId, String comment);
+
+    CompletableFuture<Void> addComments(long photoId, List<String> comments);
+
+    CompletableFuture<Void> addComments(Map<Long, List<String>> commentsByPhotoId);
+
+    CompletableFuture<Void> removeComment(long photoId, long commentId);
+}
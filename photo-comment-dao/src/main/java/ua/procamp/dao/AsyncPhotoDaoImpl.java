@@ -0,0 +1,83 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Photo;
+import ua.procamp.model.PhotoCommentPage;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
+import ua.procamp.util.async.AsyncDaoExecutor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncPhotoDaoImpl implements AsyncPhotoDao {
+    private final PhotoDao photoDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncPhotoDaoImpl(PhotoDao photoDao, AsyncDaoExecutor executor) {
+        this.photoDao = photoDao;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(Photo photo) {
+        return executor.runAsync(() -> photoDao.save(photo));
+    }
+
+    @Override
+    public CompletableFuture<Photo> findById(long id) {
+        return executor.supplyAsync(() -> photoDao.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Photo>> findAllById(List<Long> ids) {
+        return executor.supplyAsync(() -> photoDao.findAllById(ids));
+    }
+
+    @Override
+    public CompletableFuture<PhotoWithLatestComments> findByIdWithLatestComments(long id, int limit) {
+        return executor.supplyAsync(() -> photoDao.findByIdWithLatestComments(id, limit));
+    }
+
+    @Override
+    public CompletableFuture<PhotoCommentPage> findComments(long photoId, LocalDateTime beforeCreatedOn,
+                                                            Long beforeId, int limit) {
+        return executor.supplyAsync(() -> photoDao.findComments(photoId, beforeCreatedOn, beforeId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Photo>> findAll() {
+        return executor.supplyAsync(photoDao::findAll);
+    }
+
+    @Override
+    public CompletableFuture<List<PhotoSummary>> findAllSummaries() {
+        return executor.supplyAsync(photoDao::findAllSummaries);
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(Photo photo) {
+        return executor.runAsync(() -> photoDao.remove(photo));
+    }
+
+    @Override
+    public CompletableFuture<Void> addComment(long photoId, String comment) {
+        return executor.runAsync(() -> photoDao.addComment(photoId, comment));
+    }
+
+    @Override
+    public CompletableFuture<Void> addComments(long photoId, List<String> comments) {
+        return executor.runAsync(() -> photoDao.addComments(photoId, comments));
+    }
+
+    @Override
+    public CompletableFuture<Void> addComments(Map<Long, List<String>> commentsByPhotoId) {
+        return executor.runAsync(() -> photoDao.addComments(commentsByPhotoId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeComment(long photoId, long commentId) {
+        return executor.runAsync(() -> photoDao.removeComment(photoId, commentId));
+    }
+}
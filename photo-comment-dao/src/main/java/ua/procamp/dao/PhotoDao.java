@@ -1,8 +1,13 @@
 package ua.procamp.dao;
 
 import ua.procamp.model.Photo;
+import ua.procamp.model.PhotoCommentPage;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * {@link PhotoDao} defines and API of Data-Access Object for entity {@link Photo}
@@ -24,6 +29,39 @@ public interface PhotoDao {
      */
     Photo findById(long id);
 
+    /**
+     * Retrieves photos with their comments by ids. Photos and comments are loaded in batches, so the number of queries
+     * does not depend on the number of photos up to a batch size. Photos that do not exist are skipped.
+     *
+     * @param ids photo ids
+     * @return list of found photos in the order of their ids, with initialized comments
+     */
+    List<Photo> findAllById(List<Long> ids);
+
+    /**
+     * Retrieves a photo with a first page of its newest comments. The rest of the comments are not loaded, so the cost
+     * does not depend on the number of comments of the photo.
+     *
+     * @param id    photo id
+     * @param limit max number of comments
+     * @return photo with its newest comments, or {@code null} if the photo does not exist
+     */
+    PhotoWithLatestComments findByIdWithLatestComments(long id, int limit);
+
+    /**
+     * Returns a page of photo comments ordered from newest to oldest by creation time and id using keyset pagination.
+     * The query relies on an index on {@code (photo_id, created_on, id)}, so the cost of a page does not depend on
+     * how deep it is.
+     *
+     * @param photoId         photo id
+     * @param beforeCreatedOn creation time of the last comment on the previous page
+     *                        ({@link PhotoCommentPage#getNextBeforeCreatedOn()}), or {@code null} to load the first page
+     * @param beforeId        id of the last comment on the previous page ({@link PhotoCommentPage#getNextBeforeId()})
+     * @param limit           max number of comments on the page
+     * @return page of comments
+     */
+    PhotoCommentPage findComments(long photoId, LocalDateTime beforeCreatedOn, Long beforeId, int limit);
+
     /**
      * Returns a list of all stored photos
      *
@@ -31,6 +69,13 @@ public interface PhotoDao {
      */
     List<Photo> findAll();
 
+    /**
+     * Returns summaries of all stored photos with their comment counts. Comments are not queried.
+     *
+     * @return list of photo summaries
+     */
+    List<PhotoSummary> findAllSummaries();
+
     /**
      * Removes a photo from the database
      *
@@ -46,4 +91,31 @@ public interface PhotoDao {
      * @param comment
      */
     void addComment(long photoId, String comment);
+
+    /**
+     * Adds new comments to an existing photo in one transaction. Comments are inserted in JDBC batches and the photo
+     * is not loaded.
+     *
+     * @param photoId  photo id
+     * @param comments texts of new comments
+     */
+    void addComments(long photoId, List<String> comments);
+
+    /**
+     * Adds new comments to several existing photos in one transaction. Comments are inserted in JDBC batches and
+     * the photos are not loaded. Inserted comments are detached after each batch. When called within a running
+     * transaction, it joins the transaction, and other entities of its persistence context stay managed.
+     *
+     * @param commentsByPhotoId texts of new comments by photo id
+     */
+    void addComments(Map<Long, List<String>> commentsByPhotoId);
+
+    /**
+     * Removes a comment of a photo and decrements its comment count. This method does not load {@link Photo}.
+     * Nothing happens if the photo has no such comment.
+     *
+     * @param photoId   photo id
+     * @param commentId comment id
+     */
+    void removeComment(long photoId, long commentId);
 }
@@ -1,23 +1,64 @@
 package ua.procamp.dao;
 
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import ua.procamp.model.Photo;
 import ua.procamp.model.PhotoComment;
+import ua.procamp.model.PhotoCommentPage;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Please note that you should not use auto-commit mode for your implementation.
  */
 public class PhotoDaoImpl implements PhotoDao {
-    private EntityManagerFactory entityManagerFactory;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final String FIND_FIRST_COMMENTS_PAGE_QUERY = "SELECT c FROM PhotoComment c " +
+            "WHERE c.photo.id = :photoId ORDER BY c.createdOn DESC, c.id DESC";
+    private static final String FIND_COMMENTS_PAGE_QUERY = "SELECT c FROM PhotoComment c " +
+            "WHERE c.photo.id = :photoId AND (c.createdOn < :createdOn OR (c.createdOn = :createdOn AND c.id < :id)) " +
+            "ORDER BY c.createdOn DESC, c.id DESC";
+    private static final String FIND_ALL_SUMMARIES_QUERY =
+            "SELECT new ua.procamp.model.PhotoSummary(p.id, p.url, p.description, p.commentCount) FROM Photo p";
+    private static final String INCREMENT_COMMENT_COUNT_QUERY =
+            "UPDATE Photo p SET p.commentCount = p.commentCount + :delta WHERE p.id = :photoId";
+    private static final String REMOVE_COMMENT_QUERY =
+            "DELETE FROM PhotoComment c WHERE c.id = :commentId AND c.photo.id = :photoId";
+
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
 
     public PhotoDaoImpl(EntityManagerFactory entityManagerFactory) {
-        this.entityManagerFactory = entityManagerFactory;
+        this(entityManagerFactory, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param entityManagerFactory entity manager factory of photos
+     * @param batchSize            max number of ids per query of {@link #findAllById(List)}
+     */
+    public PhotoDaoImpl(EntityManagerFactory entityManagerFactory, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -30,12 +71,89 @@ public class PhotoDaoImpl implements PhotoDao {
         return executeWithtinPersistenceContextReturningResult(entityManager -> entityManager.find(Photo.class, id));
     }
 
+    /**
+     * Photos are loaded by {@link Session#byMultipleIds(Class)} in batches of {@link #batchSize} ids. Comments of
+     * loaded photos are initialized before the persistence context is closed: initializing the first collection loads
+     * comments of up to {@code @BatchSize} photos with one query.
+     */
+    @Override
+    public List<Photo> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return executeWithtinPersistenceContextReturningResult(entityManager -> {
+            List<Photo> photos = entityManager.unwrap(Session.class)
+                    .byMultipleIds(Photo.class)
+                    .withBatchSize(batchSize)
+                    .multiLoad(ids)
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .collect(toList());
+            photos.forEach(photo -> Hibernate.initialize(photo.getComments()));
+            return photos;
+        });
+    }
+
+    @Override
+    public PhotoWithLatestComments findByIdWithLatestComments(long id, int limit) {
+        verifyLimit(limit);
+        return executeWithtinPersistenceContextReturningResult(entityManager -> {
+            Photo photo = entityManager.find(Photo.class, id);
+            if (photo == null) {
+                return null;
+            }
+            return new PhotoWithLatestComments(photo, findCommentsPage(entityManager, id, null, null, limit));
+        });
+    }
+
+    @Override
+    public PhotoCommentPage findComments(long photoId, LocalDateTime beforeCreatedOn, Long beforeId, int limit) {
+        verifyLimit(limit);
+        if (beforeCreatedOn != null && beforeId == null) {
+            throw new IllegalArgumentException("Comment id cannot be null when creation time is specified");
+        }
+        return executeWithtinPersistenceContextReturningResult(entityManager ->
+                findCommentsPage(entityManager, photoId, beforeCreatedOn, beforeId, limit));
+    }
+
+    /**
+     * Selects {@code limit + 1} comments. The extra comment is not returned, it only tells that there is a next page.
+     */
+    private PhotoCommentPage findCommentsPage(EntityManager entityManager, long photoId,
+                                              LocalDateTime beforeCreatedOn, Long beforeId, int limit) {
+        TypedQuery<PhotoComment> query;
+        if (beforeCreatedOn == null) {
+            query = entityManager.createQuery(FIND_FIRST_COMMENTS_PAGE_QUERY, PhotoComment.class);
+        } else {
+            query = entityManager.createQuery(FIND_COMMENTS_PAGE_QUERY, PhotoComment.class)
+                    .setParameter("createdOn", beforeCreatedOn)
+                    .setParameter("id", beforeId);
+        }
+        List<PhotoComment> comments = query.setParameter("photoId", photoId)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = comments.size() > limit;
+        return new PhotoCommentPage(hasNext ? new ArrayList<>(comments.subList(0, limit)) : comments, hasNext);
+    }
+
+    private void verifyLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit should be positive");
+        }
+    }
+
     @Override
     public List<Photo> findAll() {
         return executeWithtinPersistenceContextReturningResult(entityManager -> entityManager
                 .createQuery("SELECT p FROM Photo p", Photo.class).getResultList());
     }
 
+    @Override
+    public List<PhotoSummary> findAllSummaries() {
+        return executeWithtinPersistenceContextReturningResult(entityManager -> entityManager
+                .createQuery(FIND_ALL_SUMMARIES_QUERY, PhotoSummary.class).getResultList());
+    }
+
     @Override
     public void remove(Photo photo) {
         executeWithinPersistenceContext(entityManager -> {
@@ -47,37 +165,99 @@ public class PhotoDaoImpl implements PhotoDao {
     @Override
     public void addComment(long photoId, String comment) {
         executeWithinPersistenceContext(entityManager -> {
-            Photo photoReference = entityManager.getReference(Photo.class, photoId);
+            incrementCommentCount(entityManager, photoId, 1);
             PhotoComment photoComment = new PhotoComment();
             photoComment.setText(comment);
-            photoReference.addComment(photoComment);
+            photoComment.setCreatedOn(LocalDateTime.now());
+            photoComment.setPhoto(entityManager.getReference(Photo.class, photoId));
+            entityManager.persist(photoComment);
         });
     }
 
-    private <T> T executeWithtinPersistenceContextReturningResult(Function<EntityManager, T> emFunction) {
-        EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.unwrap(Session.class).setDefaultReadOnly(true);
-        entityManager.getTransaction().begin();
-        try {
-            T result = emFunction.apply(entityManager);
-            entityManager.getTransaction().commit();
-            return result;
-        } finally {
-            entityManager.close();
+    @Override
+    public void addComments(long photoId, List<String> comments) {
+        addComments(Collections.singletonMap(photoId, comments));
+    }
+
+    /**
+     * Comment counts are incremented before any comment is persisted, so the bulk updates do not flush a partially
+     * filled batch. Comments are flushed and detached every {@link PhotoComment#ID_ALLOCATION_SIZE} inserts, which is
+     * also used as the JDBC batch size, so each batch takes one sequence call and one round trip. Only the inserted
+     * comments are detached, entities loaded by a caller whose transaction is joined stay managed.
+     */
+    @Override
+    public void addComments(Map<Long, List<String>> commentsByPhotoId) {
+        executeWithinPersistenceContext(entityManager -> {
+            Session session = entityManager.unwrap(Session.class);
+            Integer jdbcBatchSize = session.getJdbcBatchSize();
+            session.setJdbcBatchSize(PhotoComment.ID_ALLOCATION_SIZE);
+            try {
+                commentsByPhotoId.forEach((photoId, comments) ->
+                        incrementCommentCount(entityManager, photoId, comments.size()));
+                LocalDateTime createdOn = LocalDateTime.now();
+                List<PhotoComment> batch = new ArrayList<>(PhotoComment.ID_ALLOCATION_SIZE);
+                for (Map.Entry<Long, List<String>> photoComments : commentsByPhotoId.entrySet()) {
+                    for (String text : photoComments.getValue()) {
+                        PhotoComment photoComment = new PhotoComment();
+                        photoComment.setText(text);
+                        photoComment.setCreatedOn(createdOn);
+                        photoComment.setPhoto(entityManager.getReference(Photo.class, photoComments.getKey()));
+                        entityManager.persist(photoComment);
+                        batch.add(photoComment);
+                        if (batch.size() == PhotoComment.ID_ALLOCATION_SIZE) {
+                            flushAndDetach(entityManager, batch);
+                        }
+                    }
+                }
+                flushAndDetach(entityManager, batch);
+            } finally {
+                session.setJdbcBatchSize(jdbcBatchSize);
+            }
+        });
+    }
+
+    @Override
+    public void removeComment(long photoId, long commentId) {
+        executeWithinPersistenceContext(entityManager -> {
+            int removed = entityManager.createQuery(REMOVE_COMMENT_QUERY)
+                    .setParameter("commentId", commentId)
+                    .setParameter("photoId", photoId)
+                    .executeUpdate();
+            if (removed > 0) {
+                incrementCommentCount(entityManager, photoId, -removed);
+            }
+        });
+    }
+
+    private void flushAndDetach(EntityManager entityManager, List<PhotoComment> comments) {
+        entityManager.flush();
+        comments.forEach(entityManager::detach);
+        comments.clear();
+    }
+
+    /**
+     * Changes the comment count in the database with {@code comment_count = comment_count + delta}, so concurrent
+     * changes are not lost. The update also locks the photo row until the end of the transaction.
+     */
+    private void incrementCommentCount(EntityManager entityManager, long photoId, int delta) {
+        int updated = entityManager.createQuery(INCREMENT_COMMENT_COUNT_QUERY)
+                .setParameter("delta", delta)
+                .setParameter("photoId", photoId)
+                .executeUpdate();
+        if (updated == 0) {
+            throw new EntityNotFoundException("Photo with id = " + photoId + " does not exist");
         }
     }
 
+    private <T> T executeWithtinPersistenceContextReturningResult(Function<EntityManager, T> emFunction) {
+        return transactionTemplate.execute(TransactionOptions.readOnlyOptions(), emFunction);
+    }
+
     private void executeWithinPersistenceContext(Consumer<EntityManager> emConsumer) {
-        EntityManager entityManager = entityManagerFactory.createEntityManager();
-        entityManager.getTransaction().begin();
         try {
-            emConsumer.accept(entityManager);
-            entityManager.getTransaction().commit();
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
+            transactionTemplate.executeWithoutResult(emConsumer);
+        } catch (RuntimeException e) {
             throw new RuntimeException(e);
-        } finally {
-            entityManager.close();
         }
     }
-}
\ No newline at end of file
+}
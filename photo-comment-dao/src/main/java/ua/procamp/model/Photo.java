@@ -5,6 +5,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -12,6 +13,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
 import javax.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,8 +49,18 @@ public class Photo {
     @Column(nullable = false, unique = true)
     private String url;
     private String description;
+    /**
+     * Denormalized size of {@link #comments}. It is initialized from {@link #comments} when the photo is persisted and
+     * is never written by dirty checking afterwards: DAO methods change it with relative updates, so a stale photo
+     * flushed later does not overwrite concurrent changes. Comments added or removed on a managed photo directly are
+     * not counted, use {@link ua.procamp.dao.PhotoDao} for that.
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int commentCount;
 
     @OneToMany(mappedBy = "photo", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Setter(AccessLevel.PRIVATE)
     private List<PhotoComment> comments = new ArrayList<>();
 
@@ -62,4 +74,9 @@ public class Photo {
         comment.setPhoto(null);
     }
 
+    @PrePersist
+    void initCommentCount() {
+        commentCount = comments.size();
+    }
+
 }
@@ -8,10 +8,14 @@ import lombok.Setter;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapsId;
+import javax.persistence.PrePersist;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -34,16 +38,36 @@ import java.time.LocalDateTime;
 @Setter
 @EqualsAndHashCode(of="id")
 @Entity
-@Table(name = "photo_comment")
+@Table(name = "photo_comment", indexes = @Index(name = "photo_comment_photo_id_created_on_idx",
+        columnList = "photo_id, created_on, id"))
 public class PhotoComment {
+    /**
+     * Number of identifiers reserved by one call of the sequence, the pooled optimizer hands them out in memory
+     */
+    public static final int ID_ALLOCATION_SIZE = 500;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "photo_comment_id_generator")
+    @SequenceGenerator(name = "photo_comment_id_generator", sequenceName = "photo_comment_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     @Column(nullable = false)
     private String text;
+    @Column(name = "created_on", nullable = false)
     private LocalDateTime createdOn;
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "photo_id")
     private Photo photo;
+
+    /**
+     * Comments are paged by creation time, so every comment gets one, including comments saved by cascade from
+     * {@link Photo#addComment(PhotoComment)}
+     */
+    @PrePersist
+    void initCreatedOn() {
+        if (createdOn == null) {
+            createdOn = LocalDateTime.now();
+        }
+    }
 }
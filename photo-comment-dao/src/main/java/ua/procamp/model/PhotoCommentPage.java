@@ -0,0 +1,45 @@
+package ua.procamp.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link PhotoCommentPage} is a result of keyset (seek) pagination of photo comments from newest to oldest. To load
+ * the next page pass {@link #getNextBeforeCreatedOn()} and {@link #getNextBeforeId()} as a continuation token to
+ * the next call.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PhotoCommentPage {
+    private final List<PhotoComment> comments;
+    @Getter(AccessLevel.NONE)
+    private final boolean hasNext;
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Returns a creation time of the last comment on the page, or {@code null} if the page is empty
+     *
+     * @return continuation token by creation time
+     */
+    public LocalDateTime getNextBeforeCreatedOn() {
+        return comments.isEmpty() ? null : comments.get(comments.size() - 1).getCreatedOn();
+    }
+
+    /**
+     * Returns an id of the last comment on the page, or {@code null} if the page is empty
+     *
+     * @return continuation token by id
+     */
+    public Long getNextBeforeId() {
+        return comments.isEmpty() ? null : comments.get(comments.size() - 1).getId();
+    }
+}
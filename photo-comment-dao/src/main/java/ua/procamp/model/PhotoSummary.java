@@ -0,0 +1,21 @@
+package ua.procamp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link PhotoSummary} is a read-only projection of {@link Photo} for photo listings. It holds a denormalized number of
+ * comments, so it is loaded without touching {@code photo_comment}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class PhotoSummary {
+    private final Long id;
+    private final String url;
+    private final String description;
+    private final int commentCount;
+}
@@ -0,0 +1,17 @@
+package ua.procamp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link PhotoWithLatestComments} holds a photo with a first page of its newest comments. {@link Photo#getComments()}
+ * of the photo is not initialized, use {@link #getLatestComments()} instead.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PhotoWithLatestComments {
+    private final Photo photo;
+    private final PhotoCommentPage latestComments;
+}
@@ -3,28 +3,46 @@ package ua.procamp;
 import ua.procamp.dao.PhotoDao;
 import ua.procamp.dao.PhotoDaoImpl;
 import ua.procamp.model.Photo;
+import ua.procamp.model.PhotoComment;
+import ua.procamp.model.PhotoCommentPage;
+import ua.procamp.model.PhotoSummary;
+import ua.procamp.model.PhotoWithLatestComments;
 import ua.procamp.util.EntityManagerUtil;
+import ua.procamp.util.tx.TransactionTemplate;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import static ua.procamp.util.PhotoTestDataGenerator.createListOfRandomComments;
 import static ua.procamp.util.PhotoTestDataGenerator.createListOfRandomPhotos;
 import static ua.procamp.util.PhotoTestDataGenerator.createRandomPhoto;
+import static ua.procamp.util.PhotoTestDataGenerator.createRandomTexts;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.fail;
 
 public class PhotoDaoTest {
+    private static final Map<String, String> STATISTICS_ENABLED = Map.of("hibernate.generate_statistics", "true");
     private EntityManagerUtil emUtil;
     private PhotoDao photoDao;
     private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     public void setup() {
-        entityManagerFactory = Persistence.createEntityManagerFactory("PhotoComments");
+        entityManagerFactory = Persistence.createEntityManagerFactory("PhotoComments", STATISTICS_ENABLED);
         emUtil = new EntityManagerUtil(entityManagerFactory);
         photoDao = new PhotoDaoImpl(entityManagerFactory);
     }
@@ -54,6 +72,33 @@ public class PhotoDaoTest {
         assertThat(foundPhoto, equalTo(photo));
     }
 
+    @Test
+    public void testFindAllPhotosByIdLoadsCommentsInConstantNumberOfQueries() {
+        List<Photo> photos = createListOfRandomPhotos(30);
+        photos.forEach(photo -> createListOfRandomComments(3).forEach(photo::addComment));
+        emUtil.performWithinTx(entityManager -> photos.forEach(entityManager::persist));
+        List<Long> ids = photos.stream().map(Photo::getId).collect(Collectors.toList());
+        Collections.reverse(ids);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Photo> foundPhotos = photoDao.findAllById(ids);
+
+        assertThat(foundPhotos.stream().map(Photo::getId).collect(Collectors.toList()), equalTo(ids));
+        assertThat(foundPhotos, everyItem(hasProperty("comments", hasSize(3))));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    public void testFindAllPhotosByIdSkipsMissingPhotos() {
+        Photo photo = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+
+        List<Photo> foundPhotos = photoDao.findAllById(List.of(photo.getId(), -1L));
+
+        assertThat(foundPhotos, contains(photo));
+    }
+
     @Test
     public void testFindAllPhotos() {
         List<Photo> listOfRandomPhotos = createListOfRandomPhotos(5);
@@ -88,4 +133,203 @@ public class PhotoDaoTest {
                     hasItem(hasProperty("text", equalTo("Nice picture!"))));
         });
     }
+
+    @Test
+    public void testAddPhotoComments() {
+        Photo photo = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+
+        photoDao.addComments(photo.getId(), List.of("Nice picture!", "Great shot!"));
+
+        emUtil.performWithinTx(entityManager -> {
+            Photo managedPhoto = entityManager.find(Photo.class, photo.getId());
+            assertThat(managedPhoto.getComments(), containsInAnyOrder(
+                    hasProperty("text", equalTo("Nice picture!")),
+                    hasProperty("text", equalTo("Great shot!"))));
+        });
+    }
+
+    @Test
+    public void testAddCommentsToSeveralPhotosInBatches() {
+        List<Photo> photos = createListOfRandomPhotos(2);
+        emUtil.performWithinTx(entityManager -> photos.forEach(entityManager::persist));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        photoDao.addComments(Map.of(
+                photos.get(0).getId(), createRandomTexts(600),
+                photos.get(1).getId(), createRandomTexts(400)));
+
+        assertThat(statistics.getEntityInsertCount(), equalTo(1000L));
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(7L));
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+        emUtil.performWithinTx(entityManager -> photos.forEach(photo ->
+                assertThat(entityManager.find(Photo.class, photo.getId()).getComments(),
+                        hasSize(photo == photos.get(0) ? 600 : 400))));
+    }
+
+    @Test
+    public void testAddCommentsToMissingPhoto() {
+        try {
+            photoDao.addComments(-1L, List.of("Nice picture!"));
+            fail("Exception should be thrown");
+        } catch (Exception e) {
+            assertThat(e.getCause(), instanceOf(PersistenceException.class));
+        }
+    }
+
+    @Test
+    public void testFindCommentsPagesFromNewestToOldest() {
+        Photo photo = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+        photoDao.addComments(photo.getId(), createRandomTexts(25));
+
+        List<PhotoCommentPage> pages = new ArrayList<>();
+        PhotoCommentPage page = photoDao.findComments(photo.getId(), null, null, 10);
+        pages.add(page);
+        while (page.hasNext()) {
+            page = photoDao.findComments(photo.getId(), page.getNextBeforeCreatedOn(), page.getNextBeforeId(), 10);
+            pages.add(page);
+        }
+
+        assertThat(pages.stream().map(p -> p.getComments().size()).collect(Collectors.toList()),
+                contains(10, 10, 5));
+        List<Long> commentIds = pages.stream()
+                .flatMap(p -> p.getComments().stream())
+                .map(PhotoComment::getId)
+                .collect(Collectors.toList());
+        List<Long> expectedIds = new ArrayList<>(commentIds);
+        expectedIds.sort(Collections.reverseOrder());
+        assertThat(commentIds, equalTo(expectedIds));
+        assertThat(commentIds.stream().distinct().count(), equalTo(25L));
+    }
+
+    @Test
+    public void testFindCommentsAddedByCascade() {
+        Photo photo = createRandomPhoto();
+        for (int i = 0; i < 5; i++) {
+            PhotoComment comment = new PhotoComment();
+            comment.setText("Comment " + i);
+            photo.addComment(comment);
+        }
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+
+        List<PhotoComment> comments = new ArrayList<>();
+        PhotoCommentPage page = photoDao.findComments(photo.getId(), null, null, 2);
+        comments.addAll(page.getComments());
+        while (page.hasNext()) {
+            assertThat(page.getNextBeforeCreatedOn(), notNullValue());
+            page = photoDao.findComments(photo.getId(), page.getNextBeforeCreatedOn(), page.getNextBeforeId(), 2);
+            comments.addAll(page.getComments());
+        }
+
+        assertThat(comments, containsInAnyOrder(photo.getComments().toArray()));
+    }
+
+    @Test
+    public void testFindPhotoByIdWithLatestComments() {
+        Photo photo = createRandomPhoto();
+        List<PhotoComment> comments = createListOfRandomComments(5);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < comments.size(); i++) {
+            comments.get(i).setCreatedOn(now.minusMinutes(i));
+            photo.addComment(comments.get(i));
+        }
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+
+        PhotoWithLatestComments foundPhoto = photoDao.findByIdWithLatestComments(photo.getId(), 2);
+
+        assertThat(foundPhoto.getPhoto(), equalTo(photo));
+        assertThat(Hibernate.isInitialized(foundPhoto.getPhoto().getComments()), is(false));
+        assertThat(foundPhoto.getLatestComments().getComments(), contains(comments.get(0), comments.get(1)));
+        assertThat(foundPhoto.getLatestComments().hasNext(), is(true));
+    }
+
+    @Test
+    public void testFindMissingPhotoByIdWithLatestComments() {
+        assertThat(photoDao.findByIdWithLatestComments(-1L, 10), nullValue());
+    }
+
+    @Test
+    public void testFindAllSummariesReturnsCommentCounts() {
+        Photo photo = createRandomPhoto();
+        createListOfRandomComments(2).forEach(photo::addComment);
+        Photo otherPhoto = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> {
+            entityManager.persist(photo);
+            entityManager.persist(otherPhoto);
+        });
+        photoDao.addComment(photo.getId(), "Nice picture!");
+        photoDao.addComments(Map.of(photo.getId(), createRandomTexts(3), otherPhoto.getId(), createRandomTexts(4)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PhotoSummary> summaries = photoDao.findAllSummaries();
+
+        assertThat(summaries, containsInAnyOrder(
+                new PhotoSummary(photo.getId(), photo.getUrl(), photo.getDescription(), 6),
+                new PhotoSummary(otherPhoto.getId(), otherPhoto.getUrl(), otherPhoto.getDescription(), 4)));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    public void testRemoveCommentDecrementsCommentCount() {
+        Photo photo = createRandomPhoto();
+        List<PhotoComment> comments = createListOfRandomComments(2);
+        comments.forEach(photo::addComment);
+        Photo otherPhoto = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> {
+            entityManager.persist(photo);
+            entityManager.persist(otherPhoto);
+        });
+
+        photoDao.removeComment(photo.getId(), comments.get(0).getId());
+        photoDao.removeComment(photo.getId(), comments.get(0).getId());
+        photoDao.removeComment(otherPhoto.getId(), comments.get(1).getId());
+
+        emUtil.performWithinTx(entityManager -> {
+            Photo managedPhoto = entityManager.find(Photo.class, photo.getId());
+            assertThat(managedPhoto.getCommentCount(), equalTo(1));
+            assertThat(managedPhoto.getComments(), contains(comments.get(1)));
+            assertThat(entityManager.find(Photo.class, otherPhoto.getId()).getCommentCount(), equalTo(0));
+        });
+    }
+
+    @Test
+    public void testFlushingStalePhotoKeepsCommentCount() {
+        Photo photo = createRandomPhoto();
+        createListOfRandomComments(2).forEach(photo::addComment);
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+        assertThat(photo.getCommentCount(), equalTo(2));
+
+        photoDao.addComment(photo.getId(), "Nice picture!");
+        photo.setDescription("Updated description");
+        emUtil.performWithinTx(entityManager -> entityManager.merge(photo));
+
+        emUtil.performWithinTx(entityManager -> {
+            Photo managedPhoto = entityManager.find(Photo.class, photo.getId());
+            assertThat(managedPhoto.getDescription(), equalTo("Updated description"));
+            assertThat(managedPhoto.getCommentCount(), equalTo(3));
+        });
+    }
+
+    @Test
+    public void testAddCommentsInJoinedTransactionKeepsLoadedEntitiesManaged() {
+        Photo photo = createRandomPhoto();
+        emUtil.performWithinTx(entityManager -> entityManager.persist(photo));
+        List<String> texts = createRandomTexts(PhotoComment.ID_ALLOCATION_SIZE + 1);
+
+        new TransactionTemplate(entityManagerFactory).executeWithoutResult(entityManager -> {
+            Photo managedPhoto = entityManager.find(Photo.class, photo.getId());
+
+            photoDao.addComments(Map.of(photo.getId(), texts));
+
+            assertThat(entityManager.contains(managedPhoto), is(true));
+            managedPhoto.setDescription("Updated description");
+        });
+
+        Photo foundPhoto = emUtil.performReturningWithinTx(entityManager -> entityManager.find(Photo.class, photo.getId()));
+        assertThat(foundPhoto.getDescription(), equalTo("Updated description"));
+        assertThat(foundPhoto.getCommentCount(), equalTo(texts.size()));
+    }
 }
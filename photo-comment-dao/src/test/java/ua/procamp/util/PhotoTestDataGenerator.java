@@ -31,5 +31,8 @@ public class PhotoTestDataGenerator {
     public static List<PhotoComment> createListOfRandomComments(int size) {
         return Stream.generate(PhotoTestDataGenerator::createRandomPhotoComment).limit(size).collect(toList());
     }
-}
 
+    public static List<String> createRandomTexts(int size) {
+        return Stream.generate(() -> RandomStringUtils.randomAlphabetic(50)).limit(size).collect(toList());
+    }
+}
@@ -0,0 +1,40 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncProductDao} is a non-blocking variant of {@link ProductDao}. Each method performs the same operation
+ * as its {@link ProductDao} counterpart on an executor and returns a future of its result.
+ * A {@link ua.procamp.exception.DaoOperationException} completes the future exceptionally.
+ * <p>
+ * {@link ProductDao#streamAll(int)} has no async variant, since a stream holds a connection until it is closed.
+ */
+public interface AsyncProductDao {
+    CompletableFuture<Void> save(Product product);
+
+    CompletableFuture<List<Product>> findAll();
+
+    CompletableFuture<ProductPage> findPage(Long afterId, int limit);
+
+    CompletableFuture<ProductPage> findPage(LocalDateTime afterCreationTime, Long afterId, int limit);
+
+    CompletableFuture<Product> findOne(Long id);
+
+    CompletableFuture<List<Product>> findAllById(Collection<Long> ids);
+
+    CompletableFuture<Void> update(Product product);
+
+    CompletableFuture<Void> remove(Product product);
+
+    CompletableFuture<Void> saveAll(Collection<Product> products);
+
+    CompletableFuture<Void> updateAll(Collection<Product> products);
+
+    CompletableFuture<Void> removeAll(Collection<Product> products);
+}
@@ -0,0 +1,75 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
+import ua.procamp.util.async.AsyncDaoExecutor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncProductDaoImpl implements AsyncProductDao {
+    private final ProductDao productDao;
+    private final AsyncDaoExecutor executor;
+
+    public AsyncProductDaoImpl(ProductDao productDao, AsyncDaoExecutor executor) {
+        this.productDao = productDao;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(Product product) {
+        return executor.runAsync(() -> productDao.save(product));
+    }
+
+    @Override
+    public CompletableFuture<List<Product>> findAll() {
+        return executor.supplyAsync(productDao::findAll);
+    }
+
+    @Override
+    public CompletableFuture<ProductPage> findPage(Long afterId, int limit) {
+        return executor.supplyAsync(() -> productDao.findPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<ProductPage> findPage(LocalDateTime afterCreationTime, Long afterId, int limit) {
+        return executor.supplyAsync(() -> productDao.findPage(afterCreationTime, afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<Product> findOne(Long id) {
+        return executor.supplyAsync(() -> productDao.findOne(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Product>> findAllById(Collection<Long> ids) {
+        return executor.supplyAsync(() -> productDao.findAllById(ids));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Product product) {
+        return executor.runAsync(() -> productDao.update(product));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(Product product) {
+        return executor.runAsync(() -> productDao.remove(product));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAll(Collection<Product> products) {
+        return executor.runAsync(() -> productDao.saveAll(products));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAll(Collection<Product> products) {
+        return executor.runAsync(() -> productDao.updateAll(products));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Collection<Product> products) {
+        return executor.runAsync(() -> productDao.removeAll(products));
+    }
+}
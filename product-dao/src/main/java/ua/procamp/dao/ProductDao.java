@@ -1,8 +1,12 @@
 package ua.procamp.dao;
 
 import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * {@link ProductDao} is an Data Access Object pattern (DAO) that encapsulates all database access and manipulation logic.
@@ -23,6 +27,39 @@ public interface ProductDao {
      */
     List<Product> findAll();
 
+    /**
+     * Returns a lazy stream of all products that reads the table using a forward-only database cursor, so memory
+     * usage does not depend on the table size. The stream holds a database connection, so it must be closed
+     * (e.g. using try-with-resources).
+     *
+     * @param fetchSize number of rows fetched from the database per round trip
+     * @return stream of all products
+     */
+    Stream<Product> streamAll(int fetchSize);
+
+    /**
+     * Returns a page of products ordered by id using keyset pagination. Unlike offset pagination, the cost of a page
+     * does not depend on how deep it is, since the database seeks directly to {@code afterId} in the primary key index.
+     *
+     * @param afterId id of the last product on the previous page ({@link ProductPage#getNextAfterId()}),
+     *                or {@code null} to load the first page
+     * @param limit   max number of products on the page
+     * @return page of products
+     */
+    ProductPage findPage(Long afterId, int limit);
+
+    /**
+     * Returns a page of products ordered by creation time and id using keyset pagination. The query relies on
+     * an index on {@code (creation_time, id)}.
+     *
+     * @param afterCreationTime creation time of the last product on the previous page
+     *                          ({@link ProductPage#getNextAfterCreationTime()}), or {@code null} to load the first page
+     * @param afterId           id of the last product on the previous page ({@link ProductPage#getNextAfterId()})
+     * @param limit             max number of products on the page
+     * @return page of products
+     */
+    ProductPage findPage(LocalDateTime afterCreationTime, Long afterId, int limit);
+
     /**
      * Returns a product object by its id
      *
@@ -31,6 +68,16 @@ public interface ProductDao {
      */
     Product findOne(Long id);
 
+    /**
+     * Returns products by their ids in the order of the ids. Ids are loaded in chunks of the batch size, one query
+     * per chunk, so loading N products takes {@code ceil(N / batchSize)} round trips instead of N. If any product
+     * does not exist, {@link ua.procamp.exception.DaoOperationException} listing all missing ids is thrown.
+     *
+     * @param ids product identifiers, may contain duplicates
+     * @return one product per requested id
+     */
+    List<Product> findAllById(Collection<Long> ids);
+
     /**
      * Updates existing product.
      *
@@ -44,4 +91,28 @@ public interface ProductDao {
      * @param product stored product
      */
     void remove(Product product);
+
+    /**
+     * Stores new products using JDBC batches within a single transaction. Sets generated ids to each {@link Product}
+     * instance. If any product cannot be stored, none of them is stored.
+     *
+     * @param products new products
+     */
+    void saveAll(Collection<Product> products);
+
+    /**
+     * Updates existing products using JDBC batches within a single transaction. If any product does not exist,
+     * none of them is updated.
+     *
+     * @param products stored products with updated fields
+     */
+    void updateAll(Collection<Product> products);
+
+    /**
+     * Removes existing products using JDBC batches within a single transaction. If any product does not exist,
+     * none of them is removed.
+     *
+     * @param products stored products
+     */
+    void removeAll(Collection<Product> products);
 }
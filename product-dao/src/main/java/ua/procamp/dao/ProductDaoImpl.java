@@ -2,6 +2,7 @@ package ua.procamp.dao;
 
 import ua.procamp.exception.DaoOperationException;
 import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -10,32 +11,73 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ProductDaoImpl implements ProductDao {
     private static String SAVE_SQL = "INSERT INTO products(name, producer, price, expiration_date) VALUES (?,?,?,?)";
     private static String FIND_ALL_SQL = "SELECT * FROM products";
+    private static String FIND_FIRST_PAGE_BY_ID_SQL = "SELECT * FROM products ORDER BY id LIMIT ?";
+    private static String FIND_PAGE_BY_ID_SQL = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+    private static String FIND_FIRST_PAGE_BY_CREATION_TIME_SQL =
+            "SELECT * FROM products ORDER BY creation_time, id LIMIT ?";
+    private static String FIND_PAGE_BY_CREATION_TIME_SQL = "SELECT * FROM products " +
+            "WHERE creation_time >= ? AND (creation_time > ? OR id > ?) ORDER BY creation_time, id LIMIT ?";
     private static String FIND_ONE_SQL = "SELECT * FROM products WHERE id = ?";
+    private static String FIND_ALL_BY_ID_IN_SQL = "SELECT * FROM products WHERE id IN (%s)";
+    private static String FIND_ALL_BY_ID_ANY_SQL = "SELECT * FROM products WHERE id = ANY (?)";
     private static String UPDATE_SQL = "UPDATE products SET name = ?, producer = ?, price = ?, expiration_date = ? WHERE id = ?";
     private static String REMOVE_SQL = "DELETE FROM products WHERE id = ?";
 
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
     private DataSource dataSource;
+    private int batchSize;
 
     public ProductDaoImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param dataSource data source
+     * @param batchSize  max number of rows sent in one JDBC batch by {@link #saveAll(Collection)},
+     *                   {@link #updateAll(Collection)} and {@link #removeAll(Collection)}, and max number of ids
+     *                   per query of {@link #findAllById(Collection)}
+     */
+    public ProductDaoImpl(DataSource dataSource, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
         this.dataSource = dataSource;
+        this.batchSize = batchSize;
     }
 
     @Override
     public void save(Product product) {
-        try (Connection connection = dataSource.getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(SAVE_SQL, Statement.RETURN_GENERATED_KEYS);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SAVE_SQL, Statement.RETURN_GENERATED_KEYS)) {
             setStatementWithProduct(product, statement);
             statement.executeUpdate();
-            ResultSet generatedKeys = statement.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                long id = generatedKeys.getLong(1);
-                product.setId(id);
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    long id = generatedKeys.getLong(1);
+                    product.setId(id);
+                }
             }
         } catch (SQLException e) {
             throw new DaoOperationException("Error saving product: " + product, e);
@@ -51,12 +93,13 @@ public class ProductDaoImpl implements ProductDao {
 
     @Override
     public List<Product> findAll() {
-        try (Connection connection = dataSource.getConnection()) {
-            Statement statement = connection.createStatement();
-            ResultSet resultSet = statement.executeQuery(FIND_ALL_SQL);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(FIND_ALL_SQL)) {
+            ProductRowMapper rowMapper = ProductRowMapper.forResultSet(resultSet);
             List<Product> products = new ArrayList<>();
             while (resultSet.next()) {
-                Product product = productFromResultSet(resultSet);
+                Product product = rowMapper.mapRow(resultSet);
                 products.add(product);
             }
             return products;
@@ -65,39 +108,234 @@ public class ProductDaoImpl implements ProductDao {
         }
     }
 
-    private Product productFromResultSet(ResultSet resultSet) throws SQLException {
-        return Product.builder()
-                .id(resultSet.getLong("id"))
-                .name(resultSet.getString("name"))
-                .producer(resultSet.getString("producer"))
-                .price(resultSet.getBigDecimal("price"))
-                .expirationDate(resultSet.getDate("expiration_date").toLocalDate())
-                .creationTime(resultSet.getTimestamp("creation_time").toLocalDateTime())
-                .build();
+    @Override
+    public Stream<Product> streamAll(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size should be positive");
+        }
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = dataSource.getConnection();
+            // PostgreSQL uses a cursor (and respects fetch size) only within a transaction
+            connection.setAutoCommit(false);
+            statement = connection.prepareStatement(FIND_ALL_SQL);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+            return StreamSupport.stream(new ProductSpliterator(resultSet), false)
+                    .onClose(createCursorCloser(connection, statement, resultSet));
+        } catch (SQLException e) {
+            createCursorCloser(connection, statement, null).run();
+            throw new DaoOperationException("Error opening products stream", e);
+        }
+    }
+
+    private Runnable createCursorCloser(Connection connection, Statement statement, ResultSet resultSet) {
+        return () -> {
+            try (connection; statement; resultSet) {
+                if (connection != null) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new DaoOperationException("Error closing products stream", e);
+            }
+        };
+    }
+
+    private class ProductSpliterator extends Spliterators.AbstractSpliterator<Product> {
+        private final ResultSet resultSet;
+        private final ProductRowMapper rowMapper;
+
+        private ProductSpliterator(ResultSet resultSet) throws SQLException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+            this.rowMapper = ProductRowMapper.forResultSet(resultSet);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Product> action) {
+            try {
+                if (resultSet.next()) {
+                    action.accept(rowMapper.mapRow(resultSet));
+                    return true;
+                }
+                return false;
+            } catch (SQLException e) {
+                throw new DaoOperationException("Error reading products stream", e);
+            }
+        }
+    }
+
+    @Override
+    public ProductPage findPage(Long afterId, int limit) {
+        verifyLimit(limit);
+        String sql = afterId == null ? FIND_FIRST_PAGE_BY_ID_SQL : FIND_PAGE_BY_ID_SQL;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            int parameterIndex = 1;
+            if (afterId != null) {
+                statement.setLong(parameterIndex++, afterId);
+            }
+            statement.setInt(parameterIndex, limit + 1);
+            return pageFromStatement(statement, limit);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error loading products page after id = " + afterId, e);
+        }
+    }
+
+    @Override
+    public ProductPage findPage(LocalDateTime afterCreationTime, Long afterId, int limit) {
+        verifyLimit(limit);
+        if (afterCreationTime != null && afterId == null) {
+            throw new DaoOperationException("Product id cannot be null when creation time is specified");
+        }
+        String sql = afterCreationTime == null ? FIND_FIRST_PAGE_BY_CREATION_TIME_SQL : FIND_PAGE_BY_CREATION_TIME_SQL;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            int parameterIndex = 1;
+            if (afterCreationTime != null) {
+                Timestamp afterTimestamp = Timestamp.valueOf(afterCreationTime);
+                statement.setTimestamp(parameterIndex++, afterTimestamp);
+                statement.setTimestamp(parameterIndex++, afterTimestamp);
+                statement.setLong(parameterIndex++, afterId);
+            }
+            statement.setInt(parameterIndex, limit + 1);
+            return pageFromStatement(statement, limit);
+        } catch (SQLException e) {
+            String message = String.format("Error loading products page after creation time = %s, id = %d",
+                    afterCreationTime, afterId);
+            throw new DaoOperationException(message, e);
+        }
+    }
+
+    /**
+     * Executes a query that selects {@code limit + 1} rows. The extra row is not returned, it only tells that
+     * there is a next page.
+     */
+    private ProductPage pageFromStatement(PreparedStatement statement, int limit) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ProductRowMapper rowMapper = ProductRowMapper.forResultSet(resultSet);
+            List<Product> products = new ArrayList<>(limit);
+            while (products.size() < limit && resultSet.next()) {
+                products.add(rowMapper.mapRow(resultSet));
+            }
+            boolean hasNext = resultSet.next();
+            return new ProductPage(products, hasNext);
+        }
+    }
+
+    private void verifyLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit should be positive");
+        }
     }
 
     @Override
     public Product findOne(Long id) {
-        try (Connection connection = dataSource.getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(FIND_ONE_SQL);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_ONE_SQL)) {
             statement.setLong(1, id);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return productFromResultSet(resultSet);
-            } else {
-                String message = String.format("Product with id = %d does not exist", id);
-                throw new DaoOperationException(message);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return ProductRowMapper.forResultSet(resultSet).mapRow(resultSet);
+                } else {
+                    String message = String.format("Product with id = %d does not exist", id);
+                    throw new DaoOperationException(message);
+                }
             }
         } catch (SQLException e) {
             throw new DaoOperationException("Exception", e);
         }
     }
 
+    @Override
+    public List<Product> findAllById(Collection<Long> ids) {
+        ids.forEach(this::verifyIndex);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Product> productsById = new HashMap<>(distinctIds.size() * 4 / 3 + 1);
+        try (Connection connection = dataSource.getConnection()) {
+            boolean arrayParameterSupported = isPostgres(connection);
+            for (int from = 0; from < distinctIds.size(); from += batchSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size()));
+                try (PreparedStatement statement = arrayParameterSupported
+                        ? prepareFindByIdArrayStatement(connection, chunk)
+                        : prepareFindByIdInListStatement(connection, chunk)) {
+                    collectProducts(statement, productsById);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error loading products by ids", e);
+        }
+        return orderByIds(ids, productsById);
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        return POSTGRES_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * PostgreSQL receives a chunk as a single array parameter, so the statement text does not depend on the number
+     * of ids
+     */
+    private PreparedStatement prepareFindByIdArrayStatement(Connection connection, List<Long> ids)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(FIND_ALL_BY_ID_ANY_SQL);
+        statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+        return statement;
+    }
+
+    /**
+     * The number of IN-list parameters is padded up to the next power of two (repeating the last id), so chunks
+     * of different sizes share a few statement texts, and the statement cache and the database plan cache are
+     * reused
+     */
+    private PreparedStatement prepareFindByIdInListStatement(Connection connection, List<Long> ids)
+            throws SQLException {
+        int parameterCount = Math.min(Integer.highestOneBit(ids.size() * 2 - 1), batchSize);
+        String parameters = String.join(",", Collections.nCopies(parameterCount, "?"));
+        PreparedStatement statement = connection.prepareStatement(String.format(FIND_ALL_BY_ID_IN_SQL, parameters));
+        for (int i = 0; i < parameterCount; i++) {
+            statement.setLong(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return statement;
+    }
+
+    private void collectProducts(PreparedStatement statement, Map<Long, Product> productsById) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ProductRowMapper rowMapper = ProductRowMapper.forResultSet(resultSet);
+            while (resultSet.next()) {
+                Product product = rowMapper.mapRow(resultSet);
+                productsById.put(product.getId(), product);
+            }
+        }
+    }
+
+    private List<Product> orderByIds(Collection<Long> ids, Map<Long, Product> productsById) {
+        List<Product> products = new ArrayList<>(ids.size());
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Product product = productsById.get(id);
+            if (product == null) {
+                missingIds.add(id);
+            }
+            products.add(product);
+        }
+        if (!missingIds.isEmpty()) {
+            String message = String.format("Products with ids = %s do not exist", missingIds);
+            throw new DaoOperationException(message);
+        }
+        return products;
+    }
+
     @Override
     public void update(Product product) {
         verifyIndex(product.getId());
-        try (Connection connection = dataSource.getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(UPDATE_SQL);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
             setStatementWithProduct(product, statement);
             statement.setLong(5, product.getId());
             executeUpdateAndVerify(statement, product);
@@ -109,8 +347,8 @@ public class ProductDaoImpl implements ProductDao {
     @Override
     public void remove(Product product) {
         verifyIndex(product.getId());
-        try (Connection connection = dataSource.getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(REMOVE_SQL);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(REMOVE_SQL)) {
             statement.setLong(1, product.getId());
             executeUpdateAndVerify(statement, product);
         } catch (SQLException e) {
@@ -126,10 +364,123 @@ public class ProductDaoImpl implements ProductDao {
         }
     }
 
+    @Override
+    public void saveAll(Collection<Product> products) {
+        try {
+            executeWithinTransaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(SAVE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    executeInBatches(statement, products, this::setStatementWithProduct, this::setGeneratedIds);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            products.forEach(product -> product.setId(null));
+            throw new DaoOperationException("Error saving products", e);
+        }
+    }
+
+    private void setGeneratedIds(PreparedStatement statement, List<Product> batch, int[] updateCounts) throws SQLException {
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            for (Product product : batch) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Generated id was not returned for product: " + product);
+                }
+                product.setId(generatedKeys.getLong(1));
+            }
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Product> products) {
+        products.forEach(product -> verifyIndex(product.getId()));
+        try {
+            executeWithinTransaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+                    executeInBatches(statement, products, (product, batchStatement) -> {
+                        setStatementWithProduct(product, batchStatement);
+                        batchStatement.setLong(5, product.getId());
+                    }, this::verifyUpdateCounts);
+                }
+            });
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error updating products", e);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Product> products) {
+        products.forEach(product -> verifyIndex(product.getId()));
+        try {
+            executeWithinTransaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(REMOVE_SQL)) {
+                    executeInBatches(statement, products,
+                            (product, batchStatement) -> batchStatement.setLong(1, product.getId()),
+                            this::verifyUpdateCounts);
+                }
+            });
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error removing products", e);
+        }
+    }
+
+    private void verifyUpdateCounts(PreparedStatement statement, List<Product> batch, int[] updateCounts) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                String message = String.format("Product with id = %d does not exist", batch.get(i).getId());
+                throw new DaoOperationException(message);
+            }
+        }
+    }
+
+    private void executeInBatches(PreparedStatement statement, Collection<Product> products,
+                                  StatementSetter statementSetter, BatchResultHandler resultHandler) throws SQLException {
+        Iterator<Product> productIterator = products.iterator();
+        List<Product> batch = new ArrayList<>(Math.min(batchSize, products.size()));
+        while (productIterator.hasNext()) {
+            Product product = productIterator.next();
+            statementSetter.set(product, statement);
+            statement.addBatch();
+            batch.add(product);
+            if (batch.size() == batchSize || !productIterator.hasNext()) {
+                int[] updateCounts = statement.executeBatch();
+                resultHandler.handle(statement, batch, updateCounts);
+                batch.clear();
+            }
+        }
+    }
+
+    private void executeWithinTransaction(ConnectionConsumer connectionConsumer) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                connectionConsumer.accept(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
     private void verifyIndex(Long id) {
         if (id == null) {
             throw new DaoOperationException("Product id cannot be null");
         }
     }
 
+    @FunctionalInterface
+    private interface ConnectionConsumer {
+        void accept(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface StatementSetter {
+        void set(Product product, PreparedStatement statement) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface BatchResultHandler {
+        void handle(PreparedStatement statement, List<Product> batch, int[] updateCounts) throws SQLException;
+    }
 }
@@ -0,0 +1,78 @@
+package ua.procamp.dao;
+
+import ua.procamp.model.Product;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link ProductRowMapper} maps rows of {@code products} table to {@link Product} instances. Column indexes are
+ * resolved once per {@link ResultSet} from its {@link ResultSetMetaData}, so mapping a row does not look up columns
+ * by label. Dates are read directly as {@link LocalDate} and {@link LocalDateTime} when the driver supports it
+ * (JDBC 4.2), otherwise it falls back to {@link java.sql.Date} and {@link java.sql.Timestamp}.
+ */
+class ProductRowMapper {
+    private final int idIndex;
+    private final int nameIndex;
+    private final int producerIndex;
+    private final int priceIndex;
+    private final int expirationDateIndex;
+    private final int creationTimeIndex;
+    private boolean javaTimeSupported = true;
+
+    private ProductRowMapper(ResultSetMetaData metaData) throws SQLException {
+        idIndex = findColumn(metaData, "id");
+        nameIndex = findColumn(metaData, "name");
+        producerIndex = findColumn(metaData, "producer");
+        priceIndex = findColumn(metaData, "price");
+        expirationDateIndex = findColumn(metaData, "expiration_date");
+        creationTimeIndex = findColumn(metaData, "creation_time");
+    }
+
+    static ProductRowMapper forResultSet(ResultSet resultSet) throws SQLException {
+        return new ProductRowMapper(resultSet.getMetaData());
+    }
+
+    private static int findColumn(ResultSetMetaData metaData, String columnLabel) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (metaData.getColumnLabel(i).equalsIgnoreCase(columnLabel)) {
+                return i;
+            }
+        }
+        throw new SQLException("Column " + columnLabel + " is not found in the result set");
+    }
+
+    Product mapRow(ResultSet resultSet) throws SQLException {
+        return new Product(
+                resultSet.getLong(idIndex),
+                resultSet.getString(nameIndex),
+                resultSet.getString(producerIndex),
+                resultSet.getBigDecimal(priceIndex),
+                getExpirationDate(resultSet),
+                getCreationTime(resultSet));
+    }
+
+    private LocalDate getExpirationDate(ResultSet resultSet) throws SQLException {
+        if (javaTimeSupported) {
+            try {
+                return resultSet.getObject(expirationDateIndex, LocalDate.class);
+            } catch (SQLFeatureNotSupportedException e) {
+                javaTimeSupported = false;
+            }
+        }
+        java.sql.Date expirationDate = resultSet.getDate(expirationDateIndex);
+        return expirationDate == null ? null : expirationDate.toLocalDate();
+    }
+
+    private LocalDateTime getCreationTime(ResultSet resultSet) throws SQLException {
+        if (javaTimeSupported) {
+            return resultSet.getObject(creationTimeIndex, LocalDateTime.class);
+        }
+        java.sql.Timestamp creationTime = resultSet.getTimestamp(creationTimeIndex);
+        return creationTime == null ? null : creationTime.toLocalDateTime();
+    }
+}
@@ -0,0 +1,44 @@
+package ua.procamp.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link ProductPage} is a result of keyset (seek) pagination. To load the next page pass {@link #getNextAfterId()}
+ * (and {@link #getNextAfterCreationTime()} when paging by creation time) as a continuation token to the next call.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductPage {
+    private final List<Product> products;
+    @Getter(AccessLevel.NONE)
+    private final boolean hasNext;
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Returns an id of the last product on the page, or {@code null} if the page is empty
+     *
+     * @return continuation token by id
+     */
+    public Long getNextAfterId() {
+        return products.isEmpty() ? null : products.get(products.size() - 1).getId();
+    }
+
+    /**
+     * Returns a creation time of the last product on the page, or {@code null} if the page is empty
+     *
+     * @return continuation token by creation time
+     */
+    public LocalDateTime getNextAfterCreationTime() {
+        return products.isEmpty() ? null : products.get(products.size() - 1).getCreationTime();
+    }
+}
@@ -0,0 +1,35 @@
+package ua.procamp;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import ua.procamp.util.JdbcUtil;
+import ua.procamp.util.pool.ConnectionPoolConfig;
+import ua.procamp.util.pool.PooledDataSource;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link ProductDaoTest} against {@link PooledDataSource}, so DAO statements go through the statement cache
+ * and are reused by the following tests.
+ */
+@RunWith(JUnit4.class)
+public class PooledProductDaoTest extends ProductDaoTest {
+    private static PooledDataSource pooledDataSource;
+
+    @BeforeClass
+    public static void init() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledInMemoryH2DataSource("jdbc:h2:mem:pooled_product_db;DB_CLOSE_DELAY=-1",
+                "pooled_user", "pooled_pass", ConnectionPoolConfig.builder().minSize(1).maxSize(2).build());
+        initDaos(pooledDataSource);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        assertTrue(pooledDataSource.getMetrics().getStatementCacheHits() > 0);
+        pooledDataSource.close();
+    }
+}
@@ -4,6 +4,7 @@ import ua.procamp.dao.ProductDao;
 import ua.procamp.dao.ProductDaoImpl;
 import ua.procamp.exception.DaoOperationException;
 import ua.procamp.model.Product;
+import ua.procamp.model.ProductPage;
 import ua.procamp.util.JdbcUtil;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.RandomUtils;
@@ -19,19 +20,29 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
 @RunWith(JUnit4.class)
 public class ProductDaoTest {
     private static ProductDao productDao;
+    private static ProductDao smallBatchProductDao;
 
     @BeforeClass
     public static void init() throws SQLException {
-        DataSource h2DataSource = JdbcUtil.createDefaultInMemoryH2DataSource();
-        createAccountTable(h2DataSource);
-        productDao = new ProductDaoImpl(h2DataSource);
+        initDaos(JdbcUtil.createDefaultInMemoryH2DataSource());
+    }
+
+    static void initDaos(DataSource dataSource) throws SQLException {
+        createAccountTable(dataSource);
+        productDao = new ProductDaoImpl(dataSource);
+        smallBatchProductDao = new ProductDaoImpl(dataSource, 2);
     }
 
     private static void createAccountTable(DataSource dataSource) throws SQLException {
@@ -47,6 +58,7 @@ public class ProductDaoTest {
                     "\n" +
                     "  CONSTRAINT products_pk PRIMARY KEY (id)\n" +
                     ");\n" +
+                    "CREATE INDEX IF NOT EXISTS products_creation_time_id_idx ON products (creation_time, id);\n" +
                     "\n");
         }
     }
@@ -273,4 +285,228 @@ public class ProductDaoTest {
             assertEquals(String.format("Product with id = %d does not exist", invalidId), e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private List<Product> generateTestProductList(int size) {
+        return Stream.generate(this::generateTestProduct).limit(size).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSaveAll() {
+        List<Product> newProducts = generateTestProductList(5);
+        int productsCountBeforeInsert = productDao.findAll().size();
+
+        smallBatchProductDao.saveAll(newProducts);
+        List<Product> products = productDao.findAll();
+
+        assertEquals(productsCountBeforeInsert + newProducts.size(), products.size());
+        newProducts.forEach(product -> assertNotNull(product.getId()));
+        assertEquals(newProducts.size(), newProducts.stream().map(Product::getId).distinct().count());
+        assertTrue(products.containsAll(newProducts));
+        newProducts.forEach(product -> assertEquals(product.getName(), productDao.findOne(product.getId()).getName()));
+    }
+
+    @Test
+    public void testSaveAllWithInvalidProductSavesNothing() {
+        List<Product> newProducts = generateTestProductList(3);
+        Product invalidTestProduct = createInvalidTestProduct();
+        List<Product> productsToSave = List.of(newProducts.get(0), newProducts.get(1), invalidTestProduct, newProducts.get(2));
+        int productsCountBeforeInsert = productDao.findAll().size();
+
+        try {
+            smallBatchProductDao.saveAll(productsToSave);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals("Error saving products", e.getMessage());
+        }
+
+        assertEquals(productsCountBeforeInsert, productDao.findAll().size());
+        productsToSave.forEach(product -> assertNull(product.getId()));
+    }
+
+    @Test
+    public void testSaveAllWithInvalidProductInLaterBatchResetsIds() {
+        List<Product> productsToSave = generateTestProductList(5);
+        productsToSave.get(4).setExpirationDate(null);
+        int productsCountBeforeInsert = productDao.findAll().size();
+
+        try {
+            smallBatchProductDao.saveAll(productsToSave);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals("Error saving products", e.getMessage());
+        }
+
+        assertEquals(productsCountBeforeInsert, productDao.findAll().size());
+        productsToSave.forEach(product -> assertNull(product.getId()));
+    }
+
+    @Test
+    public void testUpdateAll() {
+        List<Product> testProducts = generateTestProductList(3);
+        productDao.saveAll(testProducts);
+
+        testProducts.forEach(product -> product.setName("Updated " + product.getName()));
+        smallBatchProductDao.updateAll(testProducts);
+
+        testProducts.forEach(product -> assertTrue(completelyEquals(product, productDao.findOne(product.getId()))));
+    }
+
+    @Test
+    public void testUpdateAllWithInvalidIdUpdatesNothing() {
+        List<Product> testProducts = generateTestProductList(3);
+        productDao.saveAll(testProducts);
+        String originalName = testProducts.get(0).getName();
+        long invalidId = -1L;
+        testProducts.get(2).setId(invalidId);
+
+        testProducts.get(0).setName("Updated name");
+        try {
+            smallBatchProductDao.updateAll(testProducts);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals(String.format("Product with id = %d does not exist", invalidId), e.getMessage());
+        }
+
+        assertEquals(originalName, productDao.findOne(testProducts.get(0).getId()).getName());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        List<Product> testProducts = generateTestProductList(5);
+        productDao.saveAll(testProducts);
+        int productsCountBeforeRemove = productDao.findAll().size();
+
+        smallBatchProductDao.removeAll(testProducts);
+        List<Product> products = productDao.findAll();
+
+        assertEquals(productsCountBeforeRemove - testProducts.size(), products.size());
+        testProducts.forEach(product -> assertFalse(products.contains(product)));
+    }
+
+    @Test
+    public void testRemoveAllNotStored() {
+        List<Product> notStoredProducts = generateTestProductList(2);
+
+        try {
+            productDao.removeAll(notStoredProducts);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals("Product id cannot be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFindAllByIdPreservesOrder() {
+        List<Product> testProducts = generateTestProductList(5);
+        productDao.saveAll(testProducts);
+        List<Long> ids = testProducts.stream().map(Product::getId).collect(Collectors.toList());
+        Collections.reverse(ids);
+        ids.add(ids.get(0));
+
+        List<Product> products = smallBatchProductDao.findAllById(ids);
+
+        assertEquals(ids.size(), products.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), products.get(i).getId());
+        }
+        testProducts.forEach(product -> assertTrue(completelyEquals(product, products.get(ids.indexOf(product.getId())))));
+    }
+
+    @Test
+    public void testFindAllByIdWithMissingIds() {
+        List<Product> testProducts = generateTestProductList(2);
+        productDao.saveAll(testProducts);
+        List<Long> ids = List.of(testProducts.get(0).getId(), -1L, testProducts.get(1).getId(), -2L);
+
+        try {
+            smallBatchProductDao.findAllById(ids);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals("Products with ids = [-1, -2] do not exist", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFindAllByIdWithEmptyIds() {
+        assertTrue(productDao.findAllById(List.of()).isEmpty());
+    }
+
+    @Test
+    public void testStreamAll() {
+        productDao.saveAll(generateTestProductList(5));
+        List<Product> products = productDao.findAll();
+
+        List<Product> streamedProducts;
+        try (Stream<Product> productStream = productDao.streamAll(2)) {
+            streamedProducts = productStream.collect(Collectors.toList());
+        }
+
+        assertEquals(products.size(), streamedProducts.size());
+        assertTrue(streamedProducts.containsAll(products));
+        streamedProducts.forEach(product -> assertNotNull(product.getCreationTime()));
+    }
+
+    @Test
+    public void testStreamAllIsLazy() {
+        productDao.saveAll(generateTestProductList(3));
+
+        try (Stream<Product> productStream = productDao.streamAll(1)) {
+            List<Product> firstProducts = productStream.limit(2).collect(Collectors.toList());
+
+            assertEquals(2, firstProducts.size());
+        }
+    }
+
+    @Test
+    public void testFindPagesById() {
+        productDao.saveAll(generateTestProductList(5));
+        List<Product> products = productDao.findAll();
+        products.sort(Comparator.comparing(Product::getId));
+
+        List<Product> pagedProducts = new ArrayList<>();
+        ProductPage page = productDao.findPage(null, 2);
+        pagedProducts.addAll(page.getProducts());
+        while (page.hasNext()) {
+            page = productDao.findPage(page.getNextAfterId(), 2);
+            assertFalse(page.getProducts().isEmpty());
+            pagedProducts.addAll(page.getProducts());
+        }
+
+        assertEquals(products, pagedProducts);
+    }
+
+    @Test
+    public void testFindPagesByCreationTime() {
+        productDao.saveAll(generateTestProductList(5));
+        List<Product> products = productDao.findAll();
+        products.sort(Comparator.comparing(Product::getCreationTime).thenComparing(Product::getId));
+
+        List<Product> pagedProducts = new ArrayList<>();
+        ProductPage page = productDao.findPage(null, null, 3);
+        pagedProducts.addAll(page.getProducts());
+        while (page.hasNext()) {
+            page = productDao.findPage(page.getNextAfterCreationTime(), page.getNextAfterId(), 3);
+            pagedProducts.addAll(page.getProducts());
+        }
+
+        assertEquals(products, pagedProducts);
+    }
+
+    @Test
+    public void testFindPageAfterLastProduct() {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        Product lastProduct = productDao.findAll().stream().max(Comparator.comparing(Product::getId)).get();
+
+        ProductPage page = productDao.findPage(lastProduct.getId(), 10);
+
+        assertTrue(page.getProducts().isEmpty());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextAfterId());
+    }
+}
@@ -1,7 +1,8 @@
 package ua.procamp;
 
-import org.hibernate.Session;
 import ua.procamp.exception.QueryHelperException;
+import ua.procamp.util.tx.TransactionOptions;
+import ua.procamp.util.tx.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -11,10 +12,10 @@ import java.util.function.Function;
  * {@link QueryHelper} provides a util method that allows to perform read operations in the scope of transaction
  */
 public class QueryHelper {
-    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transactionTemplate;
 
     public QueryHelper(EntityManagerFactory entityManagerFactory) {
-        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(entityManagerFactory);
     }
 
     /**
@@ -30,18 +31,10 @@ public class QueryHelper {
      * @return query result specified by type T
      */
     public <T> T readWithinTx(Function<EntityManager, T> entityManagerConsumer) {
-        Session entityManager = (Session) entityManagerFactory.createEntityManager();
-        entityManager.setDefaultReadOnly(true);
-        entityManager.getTransaction().begin();
         try {
-            T result = entityManagerConsumer.apply(entityManager);
-            entityManager.getTransaction().commit();
-            return result;
-        } catch (Exception e) {
-            entityManager.getTransaction().rollback();
+            return transactionTemplate.execute(TransactionOptions.readOnlyOptions(), entityManagerConsumer);
+        } catch (RuntimeException e) {
             throw new QueryHelperException("Error performing query. Transaction is rolled back", e);
-        } finally {
-            entityManager.close();
         }
     }
 }